@@ -0,0 +1,38 @@
+package br.com.study.libraryapi.async;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcRegistrations;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.time.Duration;
+
+/**
+ * Selects how BookController runs getBook/createBook. With {@code library.async.enabled=false} (the default)
+ * they run on the container threads as before; with {@code true} they run on {@link AsyncRequestExecutor}.
+ * Implements WebMvcConfigurer so it's also picked up by the @WebMvcTest slices.
+ */
+@Configuration
+public class AsyncExecutionConfig implements WebMvcConfigurer, WebMvcRegistrations {
+
+    private final boolean asyncEnabled;
+
+    public AsyncExecutionConfig(@Value("${library.async.enabled:false}") boolean asyncEnabled) {
+        this.asyncEnabled = asyncEnabled;
+    }
+
+    @Override
+    public RequestMappingHandlerMapping getRequestMappingHandlerMapping() {
+        return new ExecutionModeHandlerMapping(asyncEnabled ? ExecutionMode.Mode.ASYNC : ExecutionMode.Mode.SYNC);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public AsyncRequestExecutor asyncRequestExecutor(@Value("${library.async.pool-size:64}") int poolSize,
+                                                     @Value("${library.async.queue-capacity:1000}") int queueCapacity,
+                                                     @Value("${library.async.timeout:30s}") Duration timeout,
+                                                     @Value("${library.async.virtual-threads:true}") boolean virtualThreads) {
+        return new AsyncRequestExecutor(poolSize, queueCapacity, timeout, virtualThreads);
+    }
+}
@@ -0,0 +1,84 @@
+package br.com.study.libraryapi.async;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool that runs controller work off the servlet container threads.
+ * When both the workers and the queue are busy, {@link #submit} throws {@link RejectedExecutionException}
+ * right away, which the controller answers with 503 instead of piling up more requests.
+ */
+@Slf4j
+public class AsyncRequestExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+
+    public AsyncRequestExecutor(int poolSize, int queueCapacity, Duration timeout, boolean virtualThreads) {
+        ThreadFactory threadFactory = virtualThreads ? virtualThreadFactory() : null;
+        if (threadFactory == null)
+            threadFactory = platformThreadFactory();
+        else
+            log.info("Running async book requests on virtual threads");
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    public <T> DeferredResult<T> submit(Supplier<T> task) {
+        DeferredResult<T> result = new DeferredResult<>(timeoutMillis);
+        executor.execute(() -> {
+            if (result.isSetOrExpired())
+                return;     // Timed out while waiting in the queue
+            try {
+                result.setResult(task.get());
+            } catch (Throwable e) {
+                result.setErrorResult(e);
+            }
+        });
+        return result;
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static ThreadFactory platformThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "book-async-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Thread.ofVirtual().name(...).factory() through reflection, since the project still compiles for Java 11.
+     * Returns null when the runtime has no virtual threads.
+     */
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, "book-async-virtual-", 0L);
+            Method factory = builderType.getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package br.com.study.libraryapi.async;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a handler method as the variant of an endpoint for one execution mode.
+ * Only the variants of the mode selected by {@code library.async.enabled} get mapped,
+ * see {@link ExecutionModeHandlerMapping}. Handler methods without it are always mapped.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ExecutionMode {
+
+    Mode value();
+
+    enum Mode {
+        /** Runs on the servlet container thread. */
+        SYNC,
+        /** Runs on the bounded {@link AsyncRequestExecutor}, freeing the container thread. */
+        ASYNC
+    }
+}
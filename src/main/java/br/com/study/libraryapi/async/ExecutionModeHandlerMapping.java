@@ -0,0 +1,28 @@
+package br.com.study.libraryapi.async;
+
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.lang.reflect.Method;
+
+/**
+ * Skips the handler methods whose {@link ExecutionMode} isn't the active one,
+ * so the sync and async variants of an endpoint can share the same path.
+ */
+public class ExecutionModeHandlerMapping extends RequestMappingHandlerMapping {
+
+    private final ExecutionMode.Mode activeMode;
+
+    public ExecutionModeHandlerMapping(ExecutionMode.Mode activeMode) {
+        this.activeMode = activeMode;
+    }
+
+    @Override
+    protected RequestMappingInfo getMappingForMethod(Method method, Class<?> handlerType) {
+        ExecutionMode mode = AnnotatedElementUtils.findMergedAnnotation(method, ExecutionMode.class);
+        if (mode != null && mode.value() != activeMode)
+            return null;
+        return super.getMappingForMethod(method, handlerType);
+    }
+}
@@ -0,0 +1,92 @@
+package br.com.study.libraryapi.cache;
+
+import br.com.study.libraryapi.dto.BookDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Size-bounded read-through cache of books by id, held as BookDTOs: plain snapshots that are safe to share
+ * between requests, unlike managed entities.
+ * Missing ids are cached too (as an empty Optional) but with a shorter TTL.
+ * Hits, misses and evictions are published as the "books" cache metrics.
+ */
+@Component
+public class BookCache {
+
+    private final Cache<Long, Optional<BookDTO>> cache;
+
+    public BookCache(@Value("${library.cache.books.max-size:10000}") long maxSize,
+                     @Value("${library.cache.books.ttl:10m}") Duration ttl,
+                     @Value("${library.cache.books.negative-ttl:5s}") Duration negativeTtl,
+                     MeterRegistry meterRegistry){
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<Long, Optional<BookDTO>>() {
+                    @Override
+                    public long expireAfterCreate(Long id, Optional<BookDTO> book, long currentTime) {
+                        return book.isPresent() ? ttl.toNanos() : negativeTtl.toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long id, Optional<BookDTO> book, long currentTime, long currentDuration) {
+                        return expireAfterCreate(id, book, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long id, Optional<BookDTO> book, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "books");
+    }
+
+    public Optional<BookDTO> get(Long id, Function<Long, Optional<BookDTO>> loader){
+        return cache.get(id, loader);
+    }
+
+    /**
+     * Bulk variant of {@link #get}: the loader is called once with every id that isn't cached.
+     * Ids the loader doesn't return are cached as missing.
+     */
+    public Map<Long, Optional<BookDTO>> getAll(Collection<Long> ids, Function<Set<Long>, Collection<BookDTO>> loader){
+        return cache.getAll(ids, missing -> {
+            Set<Long> missingIds = new HashSet<>();
+            missing.forEach(missingIds::add);
+            Map<Long, Optional<BookDTO>> loaded = new HashMap<>();
+            for (Long id : missingIds)
+                loaded.put(id, Optional.empty());
+            for (BookDTO book : loader.apply(missingIds))
+                loaded.put(book.getId(), Optional.of(book));
+            return loaded;
+        });
+    }
+
+    public void put(BookDTO book){
+        cache.put(book.getId(), Optional.of(book));
+    }
+
+    public void evict(Long id){
+        if (id != null)
+            cache.invalidate(id);
+    }
+
+    public void clear(){
+        cache.invalidateAll();
+    }
+}
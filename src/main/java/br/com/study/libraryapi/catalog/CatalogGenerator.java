@@ -0,0 +1,168 @@
+package br.com.study.libraryapi.catalog;
+
+import br.com.study.libraryapi.isbn.Isbns;
+import br.com.study.libraryapi.model.entity.Book;
+import br.com.study.libraryapi.repository.BookRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+/**
+ * Fills an empty book table with a synthetic catalog for load tests, on with
+ * {@code library.catalog.generator.enabled=true}. Runs before the isbn and search index loaders, so they
+ * start from the generated books.
+ *
+ * Deterministic: book number {@code index} of a given seed is always the same book, so a load test can
+ * compute existing isbns without asking the application. Isbns are valid, distinct ISBN-13s whose serials
+ * stay below {@link #GENERATED_SERIALS}; the serials above are free for books created during the test.
+ * Generated books don't go to the change log.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "library.catalog.generator.enabled", havingValue = "true")
+public class CatalogGenerator implements ApplicationRunner {
+
+    /** Generated isbns use the serials below this one, so at most this many books can be generated. */
+    public static final long GENERATED_SERIALS = 500_000_000L;
+
+    private static final long SERIAL_MULTIPLIER = 387_420_489L;       // 3^18, coprime with GENERATED_SERIALS
+    private static final int FLUSH_SIZE = 1_000;
+    private static final int TRANSACTION_SIZE = 50_000;
+
+    private static final String[] TITLE_WORDS = {
+            "Shadow", "River", "Empire", "Garden", "Winter", "Secret", "Silent", "Broken", "Golden", "Last",
+            "Night", "Kingdom", "Journey", "Stone", "Fire", "Light", "Memory", "Ocean", "House", "Road",
+            "Storm", "Crown", "Forest", "Letters", "Mountain", "Glass", "Hidden", "Lost", "Wild", "Iron",
+            "City", "Dream", "War", "Song", "Island", "Star", "Truth", "Time", "Heart", "Machine",
+            "Language", "History", "Theory", "Practice", "Design", "Systems", "Patterns", "Introduction", "Art", "Science",
+            "Quiet", "Distant", "Northern", "Ancient", "Modern", "Small", "Endless", "Burning", "Second", "Hollow",
+            "Bridge", "Harbor", "Mirror", "Orchard"};
+    private static final String[] CONNECTORS = {"of", "and", "in", "beyond", "under", "for"};
+    private static final String[] FIRST_NAMES = {
+            "Ana", "Bruno", "Carla", "Daniel", "Elena", "Felipe", "Grace", "Hugo", "Irene", "João",
+            "Karen", "Lucas", "Maria", "Nuno", "Olivia", "Paulo", "Rita", "Samuel", "Teresa", "Victor",
+            "Alice", "Ben", "Clara", "David", "Emma", "Frank", "Helen", "Ian", "Julia", "Kurt",
+            "Laura", "Marc"};
+    private static final String[] LAST_NAMES = {
+            "Silva", "Santos", "Oliveira", "Souza", "Lima", "Pereira", "Costa", "Almeida", "Ferreira", "Rodrigues",
+            "Smith", "Johnson", "Brown", "Taylor", "Miller", "Wilson", "Moore", "Clark", "Walker", "Hall",
+            "Müller", "Schmidt", "Dubois", "Moreau", "Rossi", "Bianchi", "García", "Martínez", "Novak", "Kowalski",
+            "Tanaka", "Sato", "Kim", "Nguyen", "Chen", "Wang", "Singh", "Patel", "Haddad", "Okafor"};
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final BookRepository bookRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long books;
+    private final long seed;
+
+    public CatalogGenerator(BookRepository bookRepository, TransactionTemplate transactionTemplate,
+                            @Value("${library.catalog.generator.books:1000000}") long books,
+                            @Value("${library.catalog.generator.seed:42}") long seed) {
+        if (books < 0 || books > GENERATED_SERIALS)
+            throw new IllegalArgumentException("Generated books must be between 0 and " + GENERATED_SERIALS + ": " + books);
+        this.bookRepository = bookRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.books = books;
+        this.seed = seed;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long existing = bookRepository.count();
+        if (existing > 0) {
+            log.info("Catalog generation skipped, the book table already has {} books", existing);
+            return;
+        }
+        long start = System.nanoTime();
+        for (long from = 0; from < books; from += TRANSACTION_SIZE) {
+            long first = from;
+            long last = Math.min(from + TRANSACTION_SIZE, books);
+            transactionTemplate.executeWithoutResult( status -> insert(first, last));
+            if (last % 1_000_000 == 0 || last == books)
+                log.info("Generated {} of {} books", last, books);
+        }
+        long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        log.info("Generated {} books with seed {} in {} ms ({} books/s)", books, seed, millis, books * 1000 / millis);
+    }
+
+    // Inserts go out in JDBC batches (hibernate.jdbc.batch_size) with ids from the pooled sequence;
+    // clearing after each flush keeps the persistence context from growing with the catalog
+    private void insert(long first, long last) {
+        for (long index = first; index < last; index++) {
+            entityManager.persist(book(index, seed));
+            if ((index + 1) % FLUSH_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    /** Book number {@code index} of the catalog generated with {@code seed}. */
+    public static Book book(long index, long seed) {
+        long bits = mix(seed ^ mix(index));
+        return Book.builder()
+                .title(title(bits))
+                .author(author(mix(bits)))
+                .isbn(isbn(index, seed))
+                .build();
+    }
+
+    /** Isbn of book number {@code index}: distinct for every index below {@link #GENERATED_SERIALS}. */
+    public static String isbn(long index, long seed) {
+        long offset = Math.floorMod(mix(seed), GENERATED_SERIALS);
+        long serial = (index * SERIAL_MULTIPLIER + offset) % GENERATED_SERIALS;      // A permutation of the serials
+        return Long.toString(Isbns.isbn13(serial));
+    }
+
+    private static String title(long bits) {
+        StringBuilder title = new StringBuilder(48);
+        int shape = (int) (bits & 3);
+        bits >>>= 2;
+        if (shape != 3)
+            title.append("The ");
+        title.append(TITLE_WORDS[(int) (bits & 63)]);
+        bits >>>= 6;
+        if (shape >= 1) {
+            title.append(' ').append(TITLE_WORDS[(int) (bits & 63)]);
+            bits >>>= 6;
+        }
+        if (shape >= 2) {
+            title.append(' ').append(CONNECTORS[(int) ((bits & 0xff) % CONNECTORS.length)]);
+            bits >>>= 8;
+            title.append(' ').append(TITLE_WORDS[(int) (bits & 63)]);
+            bits >>>= 6;
+        }
+        if ((bits & 15) == 0)       // Some books are part of a series
+            title.append(", Vol. ").append(2 + (bits >>> 4) % 7);
+        return title.toString();
+    }
+
+    // Skewed towards the first names of each list, like real catalogs where a few authors write many books
+    private static String author(long bits) {
+        double first = (bits >>> 11) * 0x1.0p-53;
+        double last = (mix(bits) >>> 11) * 0x1.0p-53;
+        return FIRST_NAMES[(int) (first * first * FIRST_NAMES.length)] + " "
+                + LAST_NAMES[(int) (last * last * LAST_NAMES.length)];
+    }
+
+    /** SplitMix64 finalizer: spreads consecutive numbers over all 64 bits. */
+    static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+}
@@ -0,0 +1,97 @@
+package br.com.study.libraryapi.changes;
+
+import br.com.study.libraryapi.dto.BookChangeDTO;
+import br.com.study.libraryapi.model.entity.Book;
+import br.com.study.libraryapi.model.entity.BookChange;
+import br.com.study.libraryapi.model.entity.BookChangeCursor;
+import br.com.study.libraryapi.repository.BookChangeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Change log behind GET /api/books/changes. Writes append the new state of their books in the same
+ * transaction, so the log and the catalog can't disagree.
+ *
+ * Entry ids are the feed cursor and must follow commit order, or a consumer could move its cursor past a
+ * change that commits later with a smaller id. So instead of a sequence they come from the single
+ * {@link BookChangeCursor} row: taking a range updates the row, which stays locked until the writer
+ * commits, so the next writer only gets its range after that. The range is taken last, to hold the lock
+ * for as short as possible; this serializes the tail of concurrent writes, not the writes themselves.
+ */
+@Slf4j
+@Component
+public class BookChangeLog implements ApplicationRunner {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final BookChangeRepository changeRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public BookChangeLog(BookChangeRepository changeRepository, TransactionTemplate transactionTemplate) {
+        this.changeRepository = changeRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /** Creates the cursor row on an empty database. */
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            transactionTemplate.executeWithoutResult( status -> {
+                if (entityManager.find(BookChangeCursor.class, BookChangeCursor.ID) == null)
+                    entityManager.persist(new BookChangeCursor(BookChangeCursor.ID, 0));
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Change log cursor created by another instance");
+        }
+    }
+
+    /** Appends the current state of the given books, which must already be flushed. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Collection<Book> books) {
+        if (books.isEmpty())
+            return;
+        long id = reserve(books.size()) - books.size();
+        for (Book book : books) {
+            entityManager.persist(BookChange.builder()
+                    .id(++id)
+                    .bookId(book.getId())
+                    .title(book.getTitle())
+                    .author(book.getAuthor())
+                    .isbn(book.getIsbn())
+                    .createdAt(book.getCreatedAt())
+                    .updatedAt(book.getUpdatedAt())
+                    .build());
+        }
+    }
+
+    /** Changes after the given cursor, oldest first. */
+    public List<BookChangeDTO> changesAfter(long cursor, int limit) {
+        return changeRepository.findDtosAfter(cursor, PageRequest.of(0, limit));
+    }
+
+    /** @return the last id of the range, which is locked to this transaction until it ends */
+    private long reserve(int count) {
+        int updated = entityManager.createQuery("update BookChangeCursor c set c.lastChange = c.lastChange + :count where c.id = :id")
+                .setParameter("count", (long) count)
+                .setParameter("id", BookChangeCursor.ID)
+                .executeUpdate();
+        if (updated == 0)
+            throw new IllegalStateException("Change log cursor row is missing");
+        return entityManager.createQuery("select c.lastChange from BookChangeCursor c where c.id = :id", Long.class)
+                .setParameter("id", BookChangeCursor.ID)
+                .getSingleResult();
+    }
+}
@@ -0,0 +1,149 @@
+package br.com.study.libraryapi.changes;
+
+import br.com.study.libraryapi.dto.BookChangeDTO;
+import br.com.study.libraryapi.service.BookService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server-Sent Events version of the change feed. One thread polls the change log for all subscribers,
+ * with a single query per distinct cursor, and pushes each change as a "book" event whose id is its cursor,
+ * so a reconnecting client resumes from Last-Event-ID. Polling (rather than a local notification) also
+ * picks up changes committed by other instances.
+ */
+@Slf4j
+public class BookChangeStream {
+
+    static final String EVENT_NAME = "book";
+    private static final int MAX_BATCHES_PER_POLL = 20;
+
+    private final BookService bookService;
+    private final long pollIntervalMillis;
+    private final int batchSize;
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+    private final long heartbeatNanos;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService poller;
+
+    public BookChangeStream(BookService bookService, Duration pollInterval, int batchSize, int maxSubscribers,
+                            Duration timeout, Duration heartbeat) {
+        this.bookService = bookService;
+        this.pollIntervalMillis = pollInterval.toMillis();
+        this.batchSize = batchSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = timeout.toMillis();
+        this.heartbeatNanos = heartbeat.toNanos();
+        this.poller = Executors.newSingleThreadScheduledExecutor( task -> {
+            Thread thread = new Thread(task, "book-change-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.poller.scheduleWithFixedDelay(this::poll, pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @throws RejectedExecutionException if there are already maxSubscribers streams open
+     */
+    public SseEmitter subscribe(long since) {
+        if (subscribers.size() >= maxSubscribers)
+            throw new RejectedExecutionException("Too many change streams");
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, since);
+        emitter.onCompletion( () -> subscribers.remove(subscriber));
+        emitter.onTimeout( () -> subscribers.remove(subscriber));
+        emitter.onError( error -> subscribers.remove(subscriber));
+        try {
+            // Sent as soon as the stream opens, so clients and proxies get the headers without waiting for a change
+            emitter.send(SseEmitter.event().reconnectTime(pollIntervalMillis));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not open the change stream", e);
+        }
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public void shutdown() {
+        poller.shutdownNow();
+        for (Subscriber subscriber : subscribers)
+            subscriber.emitter.complete();
+        subscribers.clear();
+    }
+
+    void poll() {
+        if (subscribers.isEmpty())
+            return;
+        try {
+            Map<Long, List<Subscriber>> byCursor = new HashMap<>();
+            for (Subscriber subscriber : subscribers)
+                byCursor.computeIfAbsent(subscriber.cursor, cursor -> new ArrayList<>()).add(subscriber);
+            for (Map.Entry<Long, List<Subscriber>> entry : byCursor.entrySet()) {
+                long cursor = entry.getKey();
+                List<Subscriber> group = entry.getValue();
+                // Subscribers far behind catch up a few batches per poll, without starving the others
+                for (int batch = 0; batch < MAX_BATCHES_PER_POLL && !group.isEmpty(); batch++) {
+                    List<BookChangeDTO> changes = bookService.getChanges(cursor, batchSize);
+                    for (Subscriber subscriber : group)
+                        subscriber.send(changes);
+                    if (changes.size() < batchSize)
+                        break;
+                    cursor = changes.get(changes.size() - 1).getCursor();
+                    group.removeIf( subscriber -> !subscribers.contains(subscriber));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not poll the book change log", e);     // Next poll tries again from the same cursors
+        }
+    }
+
+    private final class Subscriber {
+        final SseEmitter emitter;
+        volatile long cursor;
+        long lastSent = System.nanoTime();
+
+        Subscriber(SseEmitter emitter, long cursor) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+
+        void send(List<BookChangeDTO> changes) {
+            try {
+                for (BookChangeDTO change : changes) {
+                    emitter.send(SseEmitter.event()
+                            .id(Long.toString(change.getCursor()))
+                            .name(EVENT_NAME)
+                            .data(change, MediaType.APPLICATION_JSON));
+                    cursor = change.getCursor();
+                }
+                long now = System.nanoTime();
+                if (!changes.isEmpty())
+                    lastSent = now;
+                else if (now - lastSent >= heartbeatNanos) {       // Keeps idle connections open through proxies
+                    emitter.send(SseEmitter.event().comment("keep-alive"));
+                    lastSent = now;
+                }
+            } catch (IOException | IllegalStateException e) {
+                subscribers.remove(this);       // Client went away; it resumes with Last-Event-ID
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
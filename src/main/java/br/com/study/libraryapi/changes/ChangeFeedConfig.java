@@ -0,0 +1,25 @@
+package br.com.study.libraryapi.changes;
+
+import br.com.study.libraryapi.service.BookService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Streaming side of the change feed (GET /api/books/changes/stream).
+ */
+@Configuration
+public class ChangeFeedConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public BookChangeStream bookChangeStream(BookService bookService,
+                                             @Value("${library.changes.stream.poll-interval:1s}") Duration pollInterval,
+                                             @Value("${library.changes.stream.batch-size:500}") int batchSize,
+                                             @Value("${library.changes.stream.max-subscribers:1000}") int maxSubscribers,
+                                             @Value("${library.changes.stream.timeout:30m}") Duration timeout,
+                                             @Value("${library.changes.stream.heartbeat:15s}") Duration heartbeat) {
+        return new BookChangeStream(bookService, pollInterval, batchSize, maxSubscribers, timeout, heartbeat);
+    }
+}
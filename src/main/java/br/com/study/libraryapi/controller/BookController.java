@@ -1,50 +1,259 @@
 package br.com.study.libraryapi.controller;
 
+import br.com.study.libraryapi.async.AsyncRequestExecutor;
+import br.com.study.libraryapi.async.ExecutionMode;
+import br.com.study.libraryapi.changes.BookChangeStream;
+import br.com.study.libraryapi.dto.BookBatchDTO;
+import br.com.study.libraryapi.dto.BookBatchItemDTO;
+import br.com.study.libraryapi.dto.BookChangeDTO;
+import br.com.study.libraryapi.dto.BookChangePageDTO;
 import br.com.study.libraryapi.dto.BookDTO;
+import br.com.study.libraryapi.dto.BookLookupDTO;
+import br.com.study.libraryapi.dto.BookLookupItemDTO;
+import br.com.study.libraryapi.dto.BookPageDTO;
+import br.com.study.libraryapi.dto.BookSearchPageDTO;
 import br.com.study.libraryapi.exception.ApiErrors;
 import br.com.study.libraryapi.exception.BusinessException;
+import br.com.study.libraryapi.export.BookExportWriter;
+import br.com.study.libraryapi.export.ExportFormat;
+import br.com.study.libraryapi.mapper.BookMapper;
 import br.com.study.libraryapi.model.entity.Book;
+import br.com.study.libraryapi.repository.BookFilter;
+import br.com.study.libraryapi.service.BatchItemResult;
+import br.com.study.libraryapi.service.BookSearchResult;
 import br.com.study.libraryapi.service.BookService;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.ObjectError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
 import javax.validation.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/books")
 public class BookController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_SEARCH_DEPTH = 1000;     // Deep pages of a ranked search cost as much as sorting it all
+    private static final int MAX_CHANGES_PAGE_SIZE = 1000;
+    private static final String EXPORT_TIMEOUT_INTERCEPTOR = BookController.class.getName() + ".EXPORT_TIMEOUT";
+
     private BookService bookService;
-    private ModelMapper modelMapper;
+    private BookMapper bookMapper;
+    private AsyncRequestExecutor asyncExecutor;
+    private BookChangeStream changeStream;
+    private int maxLookupItems;
+    private int maxBatchItems;
+    private CacheControl bookCacheControl;
+    private long exportTimeoutMillis;
 
-    public BookController(BookService service, ModelMapper mapper){
+    public BookController(BookService service, BookMapper mapper, AsyncRequestExecutor executor, BookChangeStream changeStream,
+                          @Value("${library.lookup.max-items:1000}") int maxLookupItems,
+                          @Value("${library.batch.max-items:1000}") int maxBatchItems,
+                          @Value("${library.http.books.max-age:60s}") Duration bookMaxAge,
+                          @Value("${library.export.timeout:1h}") Duration exportTimeout){
         this.bookService = service;
-        this.modelMapper = mapper;
+        this.bookMapper = mapper;
+        this.asyncExecutor = executor;
+        this.changeStream = changeStream;
+        this.maxLookupItems = maxLookupItems;
+        this.maxBatchItems = maxBatchItems;
+        this.bookCacheControl = CacheControl.maxAge(bookMaxAge).cachePublic();
+        this.exportTimeoutMillis = exportTimeout.toMillis();
+    }
+
+    @GetMapping
+    public BookPageDTO listBooks(@RequestParam(required = false) String title,
+                                 @RequestParam(required = false) String author,
+                                 @RequestParam(required = false) String isbn,
+                                 @RequestParam(required = false) Long after,
+                                 @RequestParam(defaultValue = "20") int size){
+
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<Book> books = bookService.find(new BookFilter(title, author, isbn), after, pageSize);
+
+        List<BookDTO> content = books.stream().map(bookMapper::toDto).collect(Collectors.toList());
+        Long nextCursor = books.size() == pageSize ? books.get(books.size() - 1).getId() : null;
+        return new BookPageDTO(content, nextCursor);
+    }
+
+    @GetMapping("/search")
+    public BookSearchPageDTO searchBooks(@RequestParam("q") String query,
+                                         @RequestParam(defaultValue = "0") int page,
+                                         @RequestParam(defaultValue = "20") int size){
+
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int pageNumber = Math.max(0, page);
+        if ((long) pageNumber * pageSize + pageSize > MAX_SEARCH_DEPTH)
+            throw new BusinessException("Search results are limited to the first " + MAX_SEARCH_DEPTH + " matches!");
+
+        BookSearchResult result = bookService.search(query, pageNumber * pageSize, pageSize);
+        return new BookSearchPageDTO(result.getBooks(), result.getTotal(), pageNumber, pageSize);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBooks(@RequestParam(defaultValue = "ndjson") String format,
+                                                             NativeWebRequest webRequest){
+
+        ExportFormat exportFormat = ExportFormat.fromName(format);
+        // The body streams on an async request; only this one gets more than the default async timeout
+        WebAsyncUtils.getAsyncManager(webRequest).registerCallableInterceptor(EXPORT_TIMEOUT_INTERCEPTOR,
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                        ((AsyncWebRequest) request).setTimeout(exportTimeoutMillis);
+                    }
+                });
+        StreamingResponseBody body = out -> {
+            try (BookExportWriter writer = BookExportWriter.of(exportFormat, out)) {
+                bookService.exportAll( book -> {
+                    try {
+                        writer.write(book);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=books." + exportFormat.getExtension())
+                .body(body);
+    }
+
+    @GetMapping("/changes")
+    public BookChangePageDTO listChanges(@RequestParam(defaultValue = "0") long since,
+                                         @RequestParam(defaultValue = "100") int size){
+
+        int pageSize = Math.max(1, Math.min(size, MAX_CHANGES_PAGE_SIZE));
+        List<BookChangeDTO> changes = bookService.getChanges(since, pageSize);
+
+        Long nextCursor = changes.isEmpty() ? since : changes.get(changes.size() - 1).getCursor();
+        return new BookChangePageDTO(changes, nextCursor, changes.size() == pageSize);
+    }
+
+    @GetMapping(value = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(defaultValue = "0") long since,
+                                    @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId){
+        // A reconnecting EventSource sends the id of the last change it got
+        return changeStream.subscribe(lastEventId != null ? lastEventId : since);
     }
 
     @GetMapping("/{id}")
-    public BookDTO getBook(@PathVariable Long id){
+    @ExecutionMode(ExecutionMode.Mode.SYNC)
+    public ResponseEntity<BookDTO> getBook(@PathVariable Long id,
+                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        // A plain 404 response rather than an exception: misses are common (crawlers) and must stay cheap
         return bookService.getById(id)
-                .map( book -> modelMapper.map(book, BookDTO.class))
-                .orElseThrow( () -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+                .map( book -> {
+                    String etag = etagOf(book);
+                    // JSON and CBOR share the weak ETag, so caches must key on Accept too
+                    if (ifNoneMatch != null && etagMatches(ifNoneMatch, etag))      // Unchanged: no body to serialize
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(bookCacheControl)
+                                .varyBy(HttpHeaders.ACCEPT).<BookDTO>build();
+                    return ResponseEntity.ok().eTag(etag).cacheControl(bookCacheControl).varyBy(HttpHeaders.ACCEPT).body(book);
+                })
+                .orElseGet( () -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}")
+    @ExecutionMode(ExecutionMode.Mode.ASYNC)
+    public DeferredResult<ResponseEntity<BookDTO>> getBookAsync(@PathVariable Long id,
+                                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        return asyncExecutor.submit(() -> getBook(id, ifNoneMatch));
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
+    @ExecutionMode(ExecutionMode.Mode.SYNC)
     public BookDTO createBook(@RequestBody @Valid BookDTO dto){
 
-        Book bookEntity = modelMapper.map(dto, Book.class);
+        Book bookEntity = bookMapper.toEntity(dto);
         bookEntity = bookService.save(bookEntity);
 
-        return modelMapper.map(bookEntity, BookDTO.class);
+        return bookMapper.toDto(bookEntity);
+    }
+
+    @PostMapping
+    @ExecutionMode(ExecutionMode.Mode.ASYNC)
+    public DeferredResult<ResponseEntity<BookDTO>> createBookAsync(@RequestBody @Valid BookDTO dto){
+        return asyncExecutor.submit(() -> ResponseEntity.status(HttpStatus.CREATED).body(createBook(dto)));
+    }
+
+    @PostMapping("/batch")
+    public List<BookBatchItemDTO> createBooks(@RequestBody @Valid BookBatchDTO batch){
+
+        // A batch is one transaction that keeps all its books managed until the commit
+        if (batch.getBooks().size() > maxBatchItems)
+            throw new BusinessException("Too many books in the batch, the limit is " + maxBatchItems + "!");
+        List<Book> books = batch.getBooks().stream()
+                .map(bookMapper::toEntity)
+                .collect(Collectors.toList());
+        List<BatchItemResult> results = bookService.saveAll(books);
+
+        List<BookBatchItemDTO> response = new ArrayList<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            BatchItemResult result = results.get(i);
+            response.add(BookBatchItemDTO.builder()
+                    .index(i)
+                    .success(result.isSuccess())
+                    .book(bookMapper.toDto(result.getBook()))
+                    .error(result.getError())
+                    .build());
+        }
+        return response;
+    }
+
+    @PostMapping("/lookup")
+    public List<BookLookupItemDTO> lookupBooks(@RequestBody @Valid BookLookupDTO lookup){
+
+        List<Long> ids = lookup.getIds() == null ? Collections.emptyList() : lookup.getIds();
+        List<String> isbns = lookup.getIsbns() == null ? Collections.emptyList() : lookup.getIsbns();
+        if (ids.isEmpty() && isbns.isEmpty())
+            throw new BusinessException("No ids or isbns to look up!");
+        if (ids.size() + isbns.size() > maxLookupItems)
+            throw new BusinessException("Too many items to look up, the limit is " + maxLookupItems + "!");
+
+        // Ids first and then isbns, each in the order they were requested
+        List<BookLookupItemDTO> response = new ArrayList<>(ids.size() + isbns.size());
+        List<Optional<BookDTO>> byId = ids.isEmpty() ? Collections.emptyList() : bookService.getByIds(ids);
+        for (int i = 0; i < ids.size(); i++)
+            response.add(lookupItem(byId.get(i)).id(ids.get(i)).build());
+        List<Optional<BookDTO>> byIsbn = isbns.isEmpty() ? Collections.emptyList() : bookService.getByIsbns(isbns);
+        for (int i = 0; i < isbns.size(); i++)
+            response.add(lookupItem(byIsbn.get(i)).isbn(isbns.get(i)).build());
+        return response;
+    }
+
+    private static BookLookupItemDTO.BookLookupItemDTOBuilder lookupItem(Optional<BookDTO> book){
+        return BookLookupItemDTO.builder()
+                .found(book.isPresent())
+                .book(book.orElse(null));
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
@@ -54,9 +263,30 @@ public class BookController {
         return new ApiErrors(bindingResult);
     }
 
-    @ExceptionHandler(BusinessException.class)
-    @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public ApiErrors handleBusinessException(BusinessException exception){
-        return new ApiErrors(exception);
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ApiErrors handleOptimisticLockingFailure(ObjectOptimisticLockingFailureException exception){
+        return new ApiErrors("Book was changed by another request, reload it and try again!");
+    }
+
+    /**
+     * Weak validator: every change to a book bumps its version, but the JSON and CBOR representations of a version
+     * aren't the same bytes. Rows inserted outside JPA have no version yet.
+     */
+    private static String etagOf(BookDTO book){
+        return "W/\"" + book.getId() + "-" + (book.getVersion() == null ? 0 : book.getVersion()) + "\"";
+    }
+
+    /** If-None-Match uses the weak comparison, so W/ prefixes are ignored. */
+    private static boolean etagMatches(String ifNoneMatch, String etag){
+        String opaqueTag = etag.substring(2);
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/"))
+                candidate = candidate.substring(2);
+            if (candidate.equals("*") || candidate.equals(opaqueTag))
+                return true;
+        }
+        return false;
     }
 }
@@ -0,0 +1,71 @@
+package br.com.study.libraryapi.controller;
+
+import br.com.study.libraryapi.dto.BookCreateStatusDTO;
+import br.com.study.libraryapi.dto.BookDTO;
+import br.com.study.libraryapi.exception.ApiErrors;
+import br.com.study.libraryapi.mapper.BookMapper;
+import br.com.study.libraryapi.writebehind.CreateStatus;
+import br.com.study.libraryapi.writebehind.WriteBehindQueue;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import javax.validation.Valid;
+import java.net.URI;
+
+/**
+ * Write-behind creates: the book is queued and stored a moment later together with other queued books.
+ * Answers 202 with a tracking id to poll; 503 when the queue is full.
+ */
+@RestController
+@RequestMapping("/api/books/async")
+@ConditionalOnProperty(name = "library.write-behind.enabled", havingValue = "true")
+public class BookWriteBehindController {
+
+    private WriteBehindQueue writeBehindQueue;
+    private BookMapper bookMapper;
+
+    public BookWriteBehindController(WriteBehindQueue queue, BookMapper mapper){
+        this.writeBehindQueue = queue;
+        this.bookMapper = mapper;
+    }
+
+    @PostMapping
+    public ResponseEntity<BookCreateStatusDTO> createBook(@RequestBody @Valid BookDTO dto){
+
+        String trackingId = writeBehindQueue.submit(bookMapper.toEntity(dto));
+
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{trackingId}").buildAndExpand(trackingId).toUri();
+        return ResponseEntity.accepted()
+                .location(location)
+                .body(BookCreateStatusDTO.builder()
+                        .trackingId(trackingId)
+                        .status(CreateStatus.State.PENDING.name())
+                        .build());
+    }
+
+    @GetMapping("/{trackingId}")
+    public ResponseEntity<BookCreateStatusDTO> getCreateStatus(@PathVariable String trackingId){
+        // Unknown and expired tracking ids look the same
+        return writeBehindQueue.status(trackingId)
+                .map( status -> ResponseEntity.ok(BookCreateStatusDTO.builder()
+                        .trackingId(trackingId)
+                        .status(status.getState().name())
+                        .book(bookMapper.toDto(status.getBook()))
+                        .error(status.getError())
+                        .build()))
+                .orElseGet( () -> ResponseEntity.notFound().build());
+    }
+
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ApiErrors handleValidationExceptions(MethodArgumentNotValidException exception){
+        BindingResult bindingResult = exception.getBindingResult();
+        return new ApiErrors(bindingResult);
+    }
+}
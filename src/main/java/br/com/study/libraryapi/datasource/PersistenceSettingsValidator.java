@@ -0,0 +1,92 @@
+package br.com.study.libraryapi.datasource;
+
+import br.com.study.libraryapi.model.entity.Book;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.IdentityGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Logs a warning at startup for each setting that silently defeats JDBC insert batching or starves the pool:
+ * IDENTITY ids or unpooled sequences on Book, batch_size of 1 or less, unordered inserts, MySQL/PostgreSQL
+ * drivers that don't rewrite batches, and a pool smaller than the async request pool.
+ */
+@Slf4j
+@Component
+public class PersistenceSettingsValidator implements ApplicationRunner {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final DataSource dataSource;
+    private final boolean asyncEnabled;
+    private final int asyncPoolSize;
+
+    public PersistenceSettingsValidator(EntityManagerFactory entityManagerFactory, DataSource dataSource,
+                                        @Value("${library.async.enabled:false}") boolean asyncEnabled,
+                                        @Value("${library.async.pool-size:64}") int asyncPoolSize) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.dataSource = dataSource;
+        this.asyncEnabled = asyncEnabled;
+        this.asyncPoolSize = asyncPoolSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        problems().forEach(log::warn);
+    }
+
+    public List<String> problems() {
+        List<String> problems = new ArrayList<>();
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+
+        IdentifierGenerator generator = sessionFactory.getMetamodel().entityPersister(Book.class).getIdentifierGenerator();
+        if (generator instanceof IdentityGenerator)
+            problems.add("Book ids use IDENTITY generation: Hibernate inserts every book on its own to read the id back, so inserts are never batched");
+        if (generator instanceof SequenceStyleGenerator
+                && ((SequenceStyleGenerator) generator).getDatabaseStructure().getIncrementSize() <= 1)
+            problems.add("Book ids come from a sequence with allocationSize 1: every insert costs an extra round trip for its id");
+
+        int batchSize = sessionFactory.getSessionFactoryOptions().getJdbcBatchSize();
+        if (batchSize <= 1)
+            problems.add("hibernate.jdbc.batch_size is " + batchSize + ": inserts are sent one statement at a time");
+        if (!sessionFactory.getSessionFactoryOptions().isOrderInsertsEnabled())
+            problems.add("hibernate.order_inserts is off: inserts into different tables interleave and break batches");
+
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class))
+                checkPool(dataSource.unwrap(HikariDataSource.class), problems);
+        } catch (SQLException e) {
+            log.debug("Couldn't inspect the connection pool", e);
+        }
+        return problems;
+    }
+
+    private void checkPool(HikariDataSource pool, List<String> problems) {
+        String url = pool.getJdbcUrl() == null ? "" : pool.getJdbcUrl();
+        if (url.startsWith("jdbc:mysql:") && !enabled(pool, url, "rewriteBatchedStatements"))
+            problems.add("MySQL driver without rewriteBatchedStatements=true: JDBC batches are still sent statement by statement");
+        if (url.startsWith("jdbc:postgresql:") && !enabled(pool, url, "reWriteBatchedInserts"))
+            problems.add("PostgreSQL driver without reWriteBatchedInserts=true: batched inserts aren't merged into multi-row inserts");
+        if (pool.getMaximumPoolSize() < 2)
+            problems.add("Connection pool maximum-pool-size is " + pool.getMaximumPoolSize() + ": every request waits for the single connection");
+        if (asyncEnabled && pool.getMaximumPoolSize() < asyncPoolSize)
+            problems.add("Connection pool maximum-pool-size (" + pool.getMaximumPoolSize() + ") is below library.async.pool-size ("
+                    + asyncPoolSize + "): async requests will queue on the pool instead of the executor");
+    }
+
+    private static boolean enabled(HikariDataSource pool, String url, String property) {
+        return "true".equalsIgnoreCase(pool.getDataSourceProperties().getProperty(property))
+                || url.contains(property + "=true");
+    }
+}
@@ -0,0 +1,15 @@
+package br.com.study.libraryapi.dto;
+
+import lombok.*;
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookBatchDTO {
+    @NotEmpty
+    private List<@Valid BookDTO> books;
+}
@@ -0,0 +1,14 @@
+package br.com.study.libraryapi.dto;
+
+import lombok.*;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookBatchItemDTO {
+    private int index;
+    private boolean success;
+    private BookDTO book;
+    private String error;
+}
@@ -0,0 +1,19 @@
+package br.com.study.libraryapi.dto;
+
+import lombok.*;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookChangeDTO {
+    private Long cursor;        // Pass as "since" to continue after this change
+    private Long id;
+    private String title;
+    private String author;
+    private String isbn;
+    private Instant createdAt;
+    private Instant updatedAt;
+}
@@ -0,0 +1,14 @@
+package br.com.study.libraryapi.dto;
+
+import lombok.*;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookChangePageDTO {
+    private List<BookChangeDTO> changes;
+    private Long nextCursor;    // Pass as "since" next time; the same cursor when there was nothing new
+    private boolean more;       // A full page: ask again right away for the rest
+}
@@ -0,0 +1,14 @@
+package br.com.study.libraryapi.dto;
+
+import lombok.*;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookCreateStatusDTO {
+    private String trackingId;
+    private String status;
+    private BookDTO book;
+    private String error;
+}
@@ -1,5 +1,7 @@
 package br.com.study.libraryapi.dto;
 
+import br.com.study.libraryapi.isbn.Isbn;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 import javax.validation.constraints.NotNull;
 
@@ -14,5 +16,8 @@ public class BookDTO {
     @NotNull
     private String author;
     @NotNull
+    @Isbn
     private String isbn;
+    @JsonIgnore     // Only used for the ETag; clients can't set it
+    private Long version;
 }
@@ -0,0 +1,15 @@
+package br.com.study.libraryapi.dto;
+
+import lombok.*;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookLookupDTO {
+    private List<@NotNull Long> ids;
+    private List<@NotBlank String> isbns;
+}
@@ -0,0 +1,14 @@
+package br.com.study.libraryapi.dto;
+
+import lombok.*;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookLookupItemDTO {
+    private Long id;
+    private String isbn;
+    private boolean found;
+    private BookDTO book;
+}
@@ -0,0 +1,13 @@
+package br.com.study.libraryapi.dto;
+
+import lombok.*;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookPageDTO {
+    private List<BookDTO> content;
+    private Long nextCursor;    // Pass as "after" to fetch the next page; null on the last page
+}
@@ -0,0 +1,15 @@
+package br.com.study.libraryapi.dto;
+
+import lombok.*;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookSearchPageDTO {
+    private List<BookDTO> content;     // Best matches first
+    private long total;
+    private int page;
+    private int size;
+}
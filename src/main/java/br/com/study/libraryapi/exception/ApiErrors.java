@@ -3,25 +3,26 @@ package br.com.study.libraryapi.exception;
 import org.springframework.validation.BindingResult;
 
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 public class ApiErrors {
-    private List<String> errors;
+    private final List<String> errors;
     public ApiErrors(BindingResult bindingResult) {
-        this.errors = new ArrayList<String>();
-        bindingResult.getAllErrors().forEach(e -> this.errors.add(e.getDefaultMessage()));
+        List<String> errors = new ArrayList<String>();
+        bindingResult.getAllErrors().forEach(e -> errors.add(e.getDefaultMessage()));
+        this.errors = Collections.unmodifiableList(errors);
     }
 
     public ApiErrors(BusinessException exception) {
-        this.errors = Arrays.asList(exception.getMessage());
+        this.errors = exception.getApiErrors().getErrors();
     }
 
-    public List<String> getErrors() {
-        return errors;
+    public ApiErrors(String message) {
+        this.errors = Collections.singletonList(message);
     }
 
-    public void setErrors(List<String> errors) {
-        this.errors = errors;
+    public List<String> getErrors() {
+        return errors;
     }
 }
@@ -0,0 +1,49 @@
+package br.com.study.libraryapi.exception;
+
+import br.com.study.libraryapi.metrics.BusinessErrorCounter;
+import br.com.study.libraryapi.ratelimit.RateLimitExceededException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Errors any /api controller can hit: the rate limiter runs before every one of them, the bounded
+ * executors and queues behind them reject work when full, and business errors can come from any layer.
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    private final ObjectProvider<BusinessErrorCounter> businessErrors;
+
+    public ApiExceptionHandler(ObjectProvider<BusinessErrorCounter> businessErrors){
+        this.businessErrors = businessErrors;       // Not there in the @WebMvcTest slices
+    }
+
+    @ExceptionHandler(BusinessException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ApiErrors handleBusinessException(BusinessException exception){
+        // Counted here so controller, export and service errors all count, each once
+        businessErrors.ifAvailable(counter -> counter.increment(exception.getMessage()));
+        return exception.getApiErrors();
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ApiErrors> handleRejectedExecution(RejectedExecutionException exception){
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ApiErrors("Server is busy, try again later!"));
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ApiErrors> handleRateLimitExceeded(RateLimitExceededException exception){
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(exception.getRetryAfterSeconds()))
+                .body(new ApiErrors(exception.getMessage()));
+    }
+}
@@ -1,7 +1,20 @@
 package br.com.study.libraryapi.exception;
 
+/**
+ * Expected, client-caused failure (duplicated isbn, bad input...). It carries no stack trace, since it's
+ * answered with a 400 and never logged, and its error payload is built once, so throwing and reporting
+ * it is cheap. Instances are immutable and may be shared as constants.
+ */
 public class BusinessException extends RuntimeException {
+
+    private final ApiErrors apiErrors;
+
     public BusinessException(String s) {
-        super(s);
+        super(s, null, false, false);
+        this.apiErrors = new ApiErrors(s);
+    }
+
+    public ApiErrors getApiErrors() {
+        return apiErrors;
     }
 }
@@ -0,0 +1,113 @@
+package br.com.study.libraryapi.export;
+
+import br.com.study.libraryapi.model.entity.Book;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes books one at a time straight to an output stream, without holding the export in memory.
+ * Not thread-safe; create one per export.
+ */
+public abstract class BookExportWriter implements Closeable {
+
+    public static BookExportWriter of(ExportFormat format, OutputStream out) throws IOException {
+        switch (format) {
+            case CSV:
+                return new Csv(out);
+            case NDJSON:
+            default:
+                return new Ndjson(out);
+        }
+    }
+
+    public abstract void write(Book book) throws IOException;
+
+    /**
+     * Flushes what is still buffered. Doesn't close the underlying stream, which belongs to the caller.
+     */
+    @Override
+    public abstract void close() throws IOException;
+
+    private static class Ndjson extends BookExportWriter {
+        private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+        private final JsonGenerator generator;
+
+        Ndjson(OutputStream out) throws IOException {
+            this.generator = JSON_FACTORY.createGenerator(out)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(Book book) throws IOException {
+            generator.writeStartObject();
+            if (book.getId() == null)
+                generator.writeNullField("id");
+            else
+                generator.writeNumberField("id", book.getId());
+            generator.writeStringField("title", book.getTitle());
+            generator.writeStringField("author", book.getAuthor());
+            generator.writeStringField("isbn", book.getIsbn());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+
+    private static class Csv extends BookExportWriter {
+        private final Writer writer;
+
+        Csv(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            this.writer.write("id,title,author,isbn\n");
+        }
+
+        @Override
+        public void write(Book book) throws IOException {
+            if (book.getId() != null)
+                writer.write(book.getId().toString());
+            writer.write(',');
+            writeField(book.getTitle());
+            writer.write(',');
+            writeField(book.getAuthor());
+            writer.write(',');
+            writeField(book.getIsbn());
+            writer.write('\n');
+        }
+
+        private void writeField(String value) throws IOException {
+            if (value == null)
+                return;
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"')
+                    writer.write('"');
+                writer.write(c);
+            }
+            writer.write('"');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package br.com.study.libraryapi.isbn;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Bloom filter over 64-bit hashes. Sized for an expected number of insertions and false-positive rate;
+ * inserting more than expected keeps it correct but raises the false-positive rate (see {@link #expectedFalsePositiveRate()}).
+ */
+class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashFunctions;
+    private final AtomicLong insertions = new AtomicLong();
+
+    BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (m + 63) / 64));
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    void add(long hash) {
+        long h1 = hash;
+        long h2 = Long.rotateLeft(hash, 32) | 1;     // Double hashing: bit i = h1 + i * h2
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = bits.get(word);
+            while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask))
+                current = bits.get(word);
+        }
+        insertions.incrementAndGet();
+    }
+
+    boolean mightContain(long hash) {
+        long h1 = hash;
+        long h2 = Long.rotateLeft(hash, 32) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0)
+                return false;
+        }
+        return true;
+    }
+
+    /** (1 - e^(-kn/m))^k for the n keys inserted so far. */
+    double expectedFalsePositiveRate() {
+        double exponent = -(double) hashFunctions * insertions.get() / bitCount;
+        return Math.pow(1 - Math.exp(exponent), hashFunctions);
+    }
+
+    long insertions() {
+        return insertions.get();
+    }
+
+    long memoryBytes() {
+        return bitCount / 8;
+    }
+}
@@ -0,0 +1,97 @@
+package br.com.study.libraryapi.isbn;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory membership test of the isbns already stored, so single creates only query the database when the
+ * isbn is probably taken; a miss still reaches the unique index on insert. A Bloom filter answers for every
+ * isbn; isbns that normalize to an ISBN-13 can also be kept in an exact primitive set, which removes their
+ * false positives.
+ *
+ * Answers are "definitely new" or "probably taken": a probable hit must still be confirmed by the database,
+ * because this index compares isbns normalized while rows stored before creates canonicalized them (see
+ * {@link IsbnMigration}) may keep another form.
+ * Filled at startup by {@link IsbnIndexLoader} and kept current by BookService on every save.
+ */
+@Component
+public class IsbnIndex {
+
+    private final BloomFilter bloomFilter;
+    private final LongHashSet exactSet;
+    private final Counter negativeLookups;
+    private final Counter probableLookups;
+    private final Counter falsePositives;
+
+    public IsbnIndex(@Value("${library.isbn-index.expected-insertions:1000000}") long expectedInsertions,
+                     @Value("${library.isbn-index.false-positive-rate:0.01}") double falsePositiveRate,
+                     @Value("${library.isbn-index.exact-set:true}") boolean exactSet,
+                     MeterRegistry meterRegistry) {
+        this.bloomFilter = new BloomFilter(expectedInsertions, falsePositiveRate);
+        this.exactSet = exactSet ? new LongHashSet((int) Math.min(expectedInsertions, 1 << 29)) : null;
+
+        this.negativeLookups = Counter.builder("library.isbn.index.lookups").tag("result", "negative").register(meterRegistry);
+        this.probableLookups = Counter.builder("library.isbn.index.lookups").tag("result", "probable").register(meterRegistry);
+        this.falsePositives = Counter.builder("library.isbn.index.false.positives")
+                .description("Probable hits the database didn't confirm")
+                .register(meterRegistry);
+        Gauge.builder("library.isbn.index.false.positive.rate", bloomFilter, BloomFilter::expectedFalsePositiveRate)
+                .description("Expected false-positive rate of the Bloom filter at its current fill")
+                .register(meterRegistry);
+        Gauge.builder("library.isbn.index.entries", bloomFilter, BloomFilter::insertions)
+                .register(meterRegistry);
+        Gauge.builder("library.isbn.index.memory", this, IsbnIndex::memoryBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public void add(String isbn) {
+        if (isbn == null)
+            return;
+        long isbn13 = Isbns.toIsbn13(isbn);
+        bloomFilter.add(hash(isbn, isbn13));
+        if (exactSet != null && isbn13 != Isbns.NOT_AN_ISBN)
+            exactSet.add(isbn13);
+    }
+
+    /**
+     * @return false if the isbn is certainly not stored yet, true if it probably is
+     */
+    public boolean mightContain(String isbn) {
+        if (isbn == null)
+            return false;
+        long isbn13 = Isbns.toIsbn13(isbn);
+        boolean probable = exactSet != null && isbn13 != Isbns.NOT_AN_ISBN
+                ? exactSet.contains(isbn13)
+                : bloomFilter.mightContain(hash(isbn, isbn13));
+        (probable ? probableLookups : negativeLookups).increment();
+        return probable;
+    }
+
+    /** Records that the database didn't confirm a probable hit. */
+    public void falsePositive() {
+        falsePositives.increment();
+    }
+
+    public long memoryBytes() {
+        return bloomFilter.memoryBytes() + (exactSet == null ? 0 : exactSet.memoryBytes());
+    }
+
+    private static long hash(String isbn, long isbn13) {
+        long h;
+        if (isbn13 != Isbns.NOT_AN_ISBN) {
+            h = isbn13;
+        } else {
+            h = 0xcbf29ce484222325L;        // FNV-1a over the raw characters
+            for (int i = 0; i < isbn.length(); i++)
+                h = (h ^ isbn.charAt(i)) * 0x100000001b3L;
+        }
+        // SplitMix64 finalizer spreads close isbn numbers over the whole filter
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+}
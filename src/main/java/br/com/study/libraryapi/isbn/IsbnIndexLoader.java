@@ -0,0 +1,41 @@
+package br.com.study.libraryapi.isbn;
+
+import br.com.study.libraryapi.repository.BookRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.stream.Stream;
+
+/**
+ * Fills the {@link IsbnIndex} from the book table once the application has started.
+ */
+@Slf4j
+@Component
+public class IsbnIndexLoader implements ApplicationRunner {
+
+    private final BookRepository bookRepository;
+    private final IsbnIndex isbnIndex;
+
+    public IsbnIndexLoader(BookRepository bookRepository, IsbnIndex isbnIndex) {
+        this.bookRepository = bookRepository;
+        this.isbnIndex = isbnIndex;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        long[] loaded = new long[1];
+        try (Stream<String> isbns = bookRepository.streamAllIsbns()) {
+            isbns.forEach(isbn -> {
+                isbnIndex.add(isbn);
+                loaded[0]++;
+            });
+        }
+        log.info("Loaded {} isbns into the isbn index in {} ms ({} bytes)",
+                loaded[0], (System.nanoTime() - start) / 1_000_000, isbnIndex.memoryBytes());
+    }
+}
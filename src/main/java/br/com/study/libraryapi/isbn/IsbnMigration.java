@@ -0,0 +1,139 @@
+package br.com.study.libraryapi.isbn;
+
+import br.com.study.libraryapi.cache.BookCache;
+import br.com.study.libraryapi.changes.BookChangeLog;
+import br.com.study.libraryapi.model.entity.Book;
+import br.com.study.libraryapi.repository.BookRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One-off rewrite of the isbns stored before creates canonicalized them, on with
+ * {@code library.isbn.migration.enabled=true}. Walks the table in id order, one transaction per batch,
+ * so it can be stopped and run again; rows already canonical are left alone.
+ *
+ * Rows whose canonical isbn already belongs to another book are duplicates the old check missed; they
+ * are logged and kept as they are, to be merged by hand. Invalid isbns are only logged.
+ * Each rewritten book goes to the change log like any other write.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "library.isbn.migration.enabled", havingValue = "true")
+public class IsbnMigration implements ApplicationRunner {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final BookRepository bookRepository;
+    private final BookChangeLog changeLog;
+    private final BookCache bookCache;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public IsbnMigration(BookRepository bookRepository, BookChangeLog changeLog, BookCache bookCache,
+                         TransactionTemplate transactionTemplate,
+                         @Value("${library.isbn.migration.batch-size:1000}") int batchSize) {
+        this.bookRepository = bookRepository;
+        this.changeLog = changeLog;
+        this.bookCache = bookCache;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        Batch progress = new Batch();
+        try {
+            Batch batch;
+            do {
+                long afterId = progress.lastId;
+                batch = transactionTemplate.execute(status -> migrateBatch(afterId));
+                progress.add(batch);
+            } while (batch.read == batchSize);
+        } catch (DataIntegrityViolationException e) {
+            // A create stored one of these isbns meanwhile; the batches before it are kept
+            log.error("Isbn migration stopped after id {}, run it again: {}", progress.lastId, e.getMessage());
+        }
+        if (progress.migrated > 0)
+            bookCache.clear();     // Cached representations still show the old isbns
+        log.info("Isbn migration: {} books read, {} rewritten, {} duplicates and {} invalid isbns left as they were, in {} ms",
+                progress.read, progress.migrated, progress.duplicates, progress.invalid,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private Batch migrateBatch(long afterId) {
+        Batch batch = new Batch();
+        List<Book> books = bookRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, batchSize));
+        if (books.isEmpty())
+            return batch;
+
+        Map<String, Book> rewrites = new LinkedHashMap<>();
+        for (Book book : books) {
+            String isbn = Isbns.canonical(book.getIsbn());
+            if (isbn == null) {
+                log.warn("Book {} has an invalid isbn: {}", book.getId(), book.getIsbn());
+                batch.invalid++;
+            } else if (!isbn.equals(book.getIsbn()) && rewrites.putIfAbsent(isbn, book) != null) {
+                log.warn("Book {} duplicates the isbn of book {}: {}", book.getId(), rewrites.get(isbn).getId(), book.getIsbn());
+                batch.duplicates++;
+            }
+        }
+
+        List<Book> changed = new ArrayList<>(rewrites.size());
+        if (!rewrites.isEmpty()) {
+            Set<String> taken = new HashSet<>(bookRepository.findExistingIsbns(rewrites.keySet()));
+            rewrites.forEach((isbn, book) -> {
+                if (taken.contains(isbn)) {
+                    log.warn("Book {} duplicates an existing isbn: {}", book.getId(), book.getIsbn());
+                    batch.duplicates++;
+                } else {
+                    book.setIsbn(isbn);
+                    changed.add(book);
+                }
+            });
+        }
+        bookRepository.flush();         // Writes the rewrites and sets their updatedAt, which the change log copies
+        changeLog.record(changed);
+        entityManager.flush();          // The change entries too, before clear() drops them
+        entityManager.clear();          // Keeps the persistence context at one batch
+
+        batch.read = books.size();
+        batch.migrated = changed.size();
+        batch.lastId = books.get(books.size() - 1).getId();
+        return batch;
+    }
+
+    private static final class Batch {
+        long lastId;
+        long read;
+        long migrated;
+        long duplicates;
+        long invalid;
+
+        void add(Batch batch) {
+            if (batch.read > 0)
+                lastId = batch.lastId;
+            read += batch.read;
+            migrated += batch.migrated;
+            duplicates += batch.duplicates;
+            invalid += batch.invalid;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package br.com.study.libraryapi.isbn;
+
+/**
+ * ISBN helpers that work on the characters directly: no regex and no intermediate strings.
+ */
+public final class Isbns {
+
+    /** Returned when a value isn't shaped like an ISBN-10 or ISBN-13. */
+    public static final long NOT_AN_ISBN = -1;
+
+    private Isbns() {
+    }
+
+    /**
+     * Normalizes an ISBN-10 or ISBN-13, with or without hyphens and spaces, to its ISBN-13 number
+     * (ISBN-10s get the 978 prefix and a recomputed check digit). Returns {@link #NOT_AN_ISBN} otherwise.
+     * Check digits aren't verified here; see {@link #parseValid(CharSequence)} for that.
+     */
+    public static long toIsbn13(CharSequence isbn) {
+        return parse(isbn, false);
+    }
+
+    /**
+     * Like {@link #toIsbn13(CharSequence)}, but only for real ISBNs: the ISBN-10 (mod 11) or ISBN-13 (mod 10)
+     * check digit must match and ISBN-13s must start with 978 or 979. Returns {@link #NOT_AN_ISBN} otherwise.
+     */
+    public static long parseValid(CharSequence isbn) {
+        return parse(isbn, true);
+    }
+
+    public static boolean isValid(CharSequence isbn) {
+        return parseValid(isbn) != NOT_AN_ISBN;
+    }
+
+    /**
+     * The canonical form books are stored with: the 13 digits of the ISBN-13, no separators.
+     * Returns the same instance when it's already canonical, null when it isn't a valid ISBN.
+     */
+    public static String canonical(String isbn) {
+        long isbn13 = parseValid(isbn);
+        if (isbn13 == NOT_AN_ISBN)
+            return null;
+        // Valid, 13 characters and no separators can only be the 13 digits themselves
+        if (isbn.length() == 13 && isbn.indexOf('-') < 0 && isbn.indexOf(' ') < 0)
+            return isbn;
+        return Long.toString(isbn13);
+    }
+
+    /** The valid 978 ISBN-13 with the given 9-digit serial, e.g. for generated books. */
+    public static long isbn13(long serial) {
+        if (serial < 0 || serial > 999_999_999L)
+            throw new IllegalArgumentException("Serial must have at most 9 digits: " + serial);
+        long first12 = 978_000_000_000L + serial;
+        return first12 * 10 + isbn13CheckDigit(first12);
+    }
+
+    // One pass over the characters; both checksums are accumulated since the length is only known at the end
+    private static long parse(CharSequence isbn, boolean verify) {
+        if (isbn == null)
+            return NOT_AN_ISBN;
+        long value = 0;
+        int digits = 0;
+        int sum10 = 0;
+        int sum13 = 0;
+        boolean tenCheckX = false;
+        for (int i = 0; i < isbn.length(); i++) {
+            char c = isbn.charAt(i);
+            if (c == '-' || c == ' ')
+                continue;
+            int digit;
+            if (c >= '0' && c <= '9' && !tenCheckX) {
+                digit = c - '0';
+                value = value * 10 + digit;
+            } else if ((c == 'X' || c == 'x') && digits == 9 && !tenCheckX) {
+                tenCheckX = true;       // ISBN-10 check digit 10; must be the last character
+                digit = 10;
+            } else {
+                return NOT_AN_ISBN;
+            }
+            if (++digits > 13)
+                return NOT_AN_ISBN;
+            if (digits <= 10)
+                sum10 += digit * (11 - digits);         // Weights 10 down to 1
+            sum13 += (digits % 2 == 0) ? digit * 3 : digit;     // Weights 1, 3, 1, ...
+        }
+        if (digits == 13) {
+            long prefix = value / 10_000_000_000L;
+            if (verify && (sum13 % 10 != 0 || (prefix != 978 && prefix != 979)))
+                return NOT_AN_ISBN;
+            return value;
+        }
+        if (digits == 10) {
+            if (verify && sum10 % 11 != 0)
+                return NOT_AN_ISBN;
+            long body = tenCheckX ? value : value / 10;     // Drop the ISBN-10 check digit
+            long isbn13WithoutCheck = 978_000_000_000L + body;
+            return isbn13WithoutCheck * 10 + isbn13CheckDigit(isbn13WithoutCheck);
+        }
+        return NOT_AN_ISBN;
+    }
+
+    /** Check digit of an ISBN-13 given its first 12 digits. */
+    static int isbn13CheckDigit(long first12) {
+        int sum = 0;
+        for (int position = 12; position >= 1; position--) {
+            int digit = (int) (first12 % 10);
+            first12 /= 10;
+            sum += (position % 2 == 0) ? digit * 3 : digit;
+        }
+        return (10 - sum % 10) % 10;
+    }
+}
@@ -0,0 +1,100 @@
+package br.com.study.libraryapi.isbn;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Set of positive longs in a single open-addressing array (no boxing, 8 bytes per slot).
+ * Writes take a lock; reads are optimistic and only fall back to the lock when they race with a write.
+ */
+class LongHashSet {
+
+    private static final long EMPTY = 0;
+    private static final double MAX_LOAD = 0.6;
+
+    private final StampedLock lock = new StampedLock();
+    private long[] table;
+    private int size;
+
+    LongHashSet(int expectedSize) {
+        table = new long[tableSizeFor(expectedSize)];
+    }
+
+    /** @param value must be greater than zero */
+    void add(long value) {
+        long stamp = lock.writeLock();
+        try {
+            if (insert(table, value)) {
+                size++;
+                if (size > table.length * MAX_LOAD)
+                    resize();
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    boolean contains(long value) {
+        long stamp = lock.tryOptimisticRead();
+        boolean found = find(table, value);
+        if (lock.validate(stamp))
+            return found;
+        stamp = lock.readLock();
+        try {
+            return find(table, value);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    long memoryBytes() {
+        return (long) table.length * Long.BYTES;
+    }
+
+    private void resize() {
+        long[] bigger = new long[table.length * 2];
+        for (long value : table) {
+            if (value != EMPTY)
+                insert(bigger, value);
+        }
+        table = bigger;
+    }
+
+    private static boolean insert(long[] table, long value) {
+        int mask = table.length - 1;
+        for (int slot = mix(value) & mask; ; slot = (slot + 1) & mask) {
+            long current = table[slot];
+            if (current == value)
+                return false;
+            if (current == EMPTY) {
+                table[slot] = value;
+                return true;
+            }
+        }
+    }
+
+    private static boolean find(long[] table, long value) {
+        int mask = table.length - 1;
+        for (int slot = mix(value) & mask, probes = 0; probes < table.length; slot = (slot + 1) & mask, probes++) {
+            long current = table[slot];
+            if (current == value)
+                return true;
+            if (current == EMPTY)
+                return false;
+        }
+        return false;
+    }
+
+    private static int mix(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int needed = (int) Math.min(1 << 30, Math.max(16, (long) Math.ceil(expectedSize / MAX_LOAD)));
+        return Integer.highestOneBit(needed - 1) << 1;
+    }
+}
@@ -0,0 +1,30 @@
+package br.com.study.libraryapi.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Counts business errors by message ("library.business.errors"): every BusinessException answered to a client,
+ * and every item a batch reports as failed. Counters are looked up once per message and then reused.
+ */
+@Component
+public class BusinessErrorCounter {
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public BusinessErrorCounter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void increment(String message) {
+        counters.computeIfAbsent(String.valueOf(message), m -> Counter.builder("library.business.errors")
+                .tag("message", m)
+                .register(meterRegistry))
+                .increment();
+    }
+}
@@ -0,0 +1,62 @@
+package br.com.study.libraryapi.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency histograms ("library.calls") of every BookService, BookRepository and BookMapper call.
+ * Business errors are counted where they're answered instead, by {@link BusinessErrorCounter}.
+ * Meters are looked up once per method and then reused, so a call only pays for two clock reads and a record.
+ */
+@Aspect
+@Component
+public class MethodMetricsAspect {
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<Method, Timer> timers = new ConcurrentHashMap<>();
+
+    public MethodMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(* br.com.study.libraryapi.service.BookService+.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, "service");
+    }
+
+    @Around("execution(* br.com.study.libraryapi.repository.BookRepository+.*(..))")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, "repository");
+    }
+
+    @Around("execution(* br.com.study.libraryapi.mapper.BookMapper.*(..))")
+    public Object timeMapper(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, "mapper");
+    }
+
+    private Object time(ProceedingJoinPoint joinPoint, String layer) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Timer timer = timers.computeIfAbsent(method, m -> Timer.builder("library.calls")
+                .tag("layer", layer)
+                .tag("class", m.getDeclaringClass().getSimpleName())
+                .tag("method", m.getName())
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
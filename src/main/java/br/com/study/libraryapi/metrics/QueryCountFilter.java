@@ -0,0 +1,37 @@
+package br.com.study.libraryapi.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Records how many SQL statements each request ran ("library.db.queries").
+ * Only statements run on the request thread are seen; work handed to other threads (async mode, export) isn't.
+ */
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    private final DistributionSummary queries;
+
+    public QueryCountFilter(MeterRegistry meterRegistry) {
+        this.queries = DistributionSummary.builder("library.db.queries")
+                .description("SQL statements run per request")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryCountInspector.reset();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            queries.record(QueryCountInspector.count());
+        }
+    }
+}
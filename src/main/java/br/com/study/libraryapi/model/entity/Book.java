@@ -4,19 +4,39 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
 import javax.persistence.*;
+import java.time.Instant;
 
 @Entity
 @Data
-@Table
+@Table(uniqueConstraints = @UniqueConstraint(name = Book.ISBN_CONSTRAINT, columnNames = "isbn"),
+        indexes = {     // Listing filters by title/author prefix; only an exact title/author would seek by id
+                @Index(name = "idx_book_title", columnList = "title, id"),
+                @Index(name = "idx_book_author", columnList = "author, id")
+        })
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Book {
+    public static final String ISBN_CONSTRAINT = "uk_book_isbn";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)  // IDENTITY would disable JDBC insert batching
     private Long id;
     private String title;
     private String author;
     private String isbn;
+
+    @Version        // Optimistic locking; also identifies the representation in ETags
+    private Long version;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private Instant createdAt;
+    @UpdateTimestamp
+    private Instant updatedAt;
 }
@@ -0,0 +1,31 @@
+package br.com.study.libraryapi.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.time.Instant;
+
+/**
+ * One entry of the change log: the state of a book right after a write. The id is the feed cursor; it's
+ * handed out in commit order (see BookChangeLog), so the primary key index serves "everything after N".
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookChange {
+
+    @Id
+    private Long id;
+    private Long bookId;
+    private String title;
+    private String author;
+    private String isbn;
+    private Instant createdAt;
+    private Instant updatedAt;
+}
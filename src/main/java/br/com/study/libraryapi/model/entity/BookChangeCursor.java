@@ -0,0 +1,24 @@
+package br.com.study.libraryapi.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * Single row holding the last change log id handed out. Writers take ids by updating it, which locks the
+ * row until they commit, so ids are taken in commit order.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookChangeCursor {
+    public static final long ID = 1;
+
+    @Id
+    private Long id;
+    private long lastChange;
+}
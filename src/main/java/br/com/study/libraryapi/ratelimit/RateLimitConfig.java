@@ -0,0 +1,44 @@
+package br.com.study.libraryapi.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Per-client rate limits on /api/**, on with {@code library.rate-limit.enabled=true}.
+ * Implements WebMvcConfigurer so it's also picked up by the @WebMvcTest slices, where there may be no MeterRegistry.
+ */
+@Configuration
+@ConditionalOnProperty(name = "library.rate-limit.enabled", havingValue = "true")
+public class RateLimitConfig implements WebMvcConfigurer {
+
+    private final RateLimiter rateLimiter;
+    private final Set<String> apiKeys;
+
+    public RateLimitConfig(@Value("${library.rate-limit.read.per-second:200}") double readPerSecond,
+                           @Value("${library.rate-limit.read.burst:400}") int readBurst,
+                           @Value("${library.rate-limit.write.per-second:20}") double writePerSecond,
+                           @Value("${library.rate-limit.write.burst:40}") int writeBurst,
+                           @Value("${library.rate-limit.max-clients:100000}") long maxClients,
+                           @Value("${library.rate-limit.idle-timeout:10m}") Duration idleTimeout,
+                           @Value("${library.rate-limit.api-keys:}") Set<String> apiKeys,
+                           ObjectProvider<MeterRegistry> meterRegistry) {
+        this.rateLimiter = new RateLimiter(new RateLimiter.Limit(readPerSecond, readBurst),
+                new RateLimiter.Limit(writePerSecond, writeBurst),
+                maxClients, idleTimeout, meterRegistry.getIfAvailable());
+        this.apiKeys = new HashSet<>(apiKeys);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RateLimitInterceptor(rateLimiter, apiKeys)).addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,19 @@
+package br.com.study.libraryapi.ratelimit;
+
+/**
+ * Thrown by {@link RateLimitInterceptor} when the client's bucket is empty; answered with a 429.
+ * Stackless, like BusinessException: throttled clients are exactly the ones sending the most requests.
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(long retryAfterSeconds) {
+        super("Too many requests, try again later!", null, false, false);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,43 @@
+package br.com.study.libraryapi.ratelimit;
+
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Charges every API request to its client's bucket: reads (GET, HEAD, OPTIONS) and writes have separate
+ * limits. Clients are identified by their X-API-Key header when it's one of the configured keys, otherwise by
+ * their address: a key the client can make up would get it a fresh bucket per request.
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    public static final String API_KEY_HEADER = "X-API-Key";
+
+    private final RateLimiter rateLimiter;
+    private final Set<String> apiKeys;
+
+    public RateLimitInterceptor(RateLimiter rateLimiter, Set<String> apiKeys) {
+        this.rateLimiter = rateLimiter;
+        this.apiKeys = apiKeys;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC)
+            return true;        // Already charged when the request came in
+        String apiKey = request.getHeader(API_KEY_HEADER);
+        String client = apiKey != null && apiKeys.contains(apiKey) ? "key:" + apiKey : "ip:" + request.getRemoteAddr();
+        long waitNanos = rateLimiter.tryAcquire(client, isRead(request.getMethod()) ? RateLimiter.Kind.READ : RateLimiter.Kind.WRITE);
+        if (waitNanos > 0)
+            throw new RateLimitExceededException(Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1)));
+        return true;
+    }
+
+    private static boolean isRead(String method) {
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+}
@@ -0,0 +1,90 @@
+package br.com.study.libraryapi.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-client token buckets, with separate limits for reads and writes.
+ * Buckets of clients that went quiet are dropped after a while; the number of clients tracked is bounded.
+ */
+public class RateLimiter {
+
+    public enum Kind { READ, WRITE }
+
+    private final Map<Kind, Limit> limits = new EnumMap<>(Kind.class);
+    private final Map<Kind, Cache<String, TokenBucket>> buckets = new EnumMap<>(Kind.class);
+    private final Map<Kind, Counter> allowed = new EnumMap<>(Kind.class);
+    private final Map<Kind, Counter> rejected = new EnumMap<>(Kind.class);
+
+    public RateLimiter(Limit read, Limit write, long maxClients, Duration idleTimeout, MeterRegistry meterRegistry) {
+        limits.put(Kind.READ, read);
+        limits.put(Kind.WRITE, write);
+        for (Kind kind : Kind.values()) {
+            buckets.put(kind, Caffeine.newBuilder()
+                    .maximumSize(maxClients)
+                    .expireAfterAccess(idleTimeout)
+                    .build());
+            if (meterRegistry != null)
+                registerMetrics(kind, meterRegistry);
+        }
+    }
+
+    /**
+     * @return 0 if the request may proceed, otherwise the nanoseconds until the client gets a token
+     */
+    public long tryAcquire(String client, Kind kind) {
+        Limit limit = limits.get(kind);
+        TokenBucket bucket = buckets.get(kind).get(client, key -> limit.newBucket());
+        long waitNanos = bucket.tryAcquire(System.nanoTime());
+        Counter counter = (waitNanos == 0 ? allowed : rejected).get(kind);
+        if (counter != null)
+            counter.increment();
+        return waitNanos;
+    }
+
+    private void registerMetrics(Kind kind, MeterRegistry meterRegistry) {
+        String tag = kind.name().toLowerCase();
+        allowed.put(kind, Counter.builder("library.ratelimit.requests").tag("kind", tag).tag("result", "allowed").register(meterRegistry));
+        rejected.put(kind, Counter.builder("library.ratelimit.requests").tag("kind", tag).tag("result", "rejected").register(meterRegistry));
+        Gauge.builder("library.ratelimit.clients", buckets.get(kind), Cache::estimatedSize)
+                .tag("kind", tag)
+                .description("Clients with a bucket")
+                .register(meterRegistry);
+        // Computed when scraped, not per request
+        Gauge.builder("library.ratelimit.clients.throttled", buckets.get(kind), RateLimiter::emptyBuckets)
+                .tag("kind", tag)
+                .description("Clients whose bucket is empty right now")
+                .register(meterRegistry);
+    }
+
+    private static long emptyBuckets(Cache<String, TokenBucket> buckets) {
+        long now = System.nanoTime();
+        return buckets.asMap().values().stream().filter(bucket -> bucket.availableTokens(now) < 1).count();
+    }
+
+    /** A sustained rate plus the burst a client may spend at once. */
+    public static final class Limit {
+
+        private final long emissionIntervalNanos;
+        private final long burstToleranceNanos;
+
+        public Limit(double perSecond, int burst) {
+            if (perSecond <= 0 || burst < 1)
+                throw new IllegalArgumentException("Rate limits need a positive rate and a burst of at least 1");
+            this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / perSecond);
+            this.burstToleranceNanos = emissionIntervalNanos * burst;
+        }
+
+        TokenBucket newBucket() {
+            return new TokenBucket(emissionIntervalNanos, burstToleranceNanos);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package br.com.study.libraryapi.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, in its GCRA form: the whole state is one "theoretical arrival time" updated by CAS,
+ * so there is no refill task and no lock. A request is allowed when, after charging one emission interval,
+ * the arrival time doesn't run further ahead of now than the burst allows.
+ */
+final class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;     // Emission interval times the burst
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+    TokenBucket(long emissionIntervalNanos, long burstToleranceNanos) {
+        this.emissionIntervalNanos = emissionIntervalNanos;
+        this.burstToleranceNanos = burstToleranceNanos;
+    }
+
+    /**
+     * @return 0 if a token was taken, otherwise the nanoseconds until one is available
+     */
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long next = Math.max(arrival, nowNanos) + emissionIntervalNanos;
+            long ahead = next - nowNanos;
+            if (ahead > burstToleranceNanos)
+                return ahead - burstToleranceNanos;
+            if (theoreticalArrival.compareAndSet(arrival, next))
+                return 0;
+        }
+    }
+
+    /** Whole tokens left right now. */
+    long availableTokens(long nowNanos) {
+        long ahead = Math.max(theoreticalArrival.get(), nowNanos) - nowNanos;
+        return (burstToleranceNanos - ahead) / emissionIntervalNanos;
+    }
+}
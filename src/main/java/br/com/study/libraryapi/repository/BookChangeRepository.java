@@ -0,0 +1,20 @@
+package br.com.study.libraryapi.repository;
+
+import br.com.study.libraryapi.dto.BookChangeDTO;
+import br.com.study.libraryapi.model.entity.BookChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface BookChangeRepository extends JpaRepository<BookChange, Long> {
+
+    // A range scan of the primary key: the cost follows the number of changes, not the size of the catalog
+    @Transactional(readOnly = true)
+    @Query("select new br.com.study.libraryapi.dto.BookChangeDTO(c.id, c.bookId, c.title, c.author, c.isbn, c.createdAt, c.updatedAt)" +
+            " from BookChange c where c.id > :since order by c.id")
+    List<BookChangeDTO> findDtosAfter(@Param("since") long since, Pageable page);
+}
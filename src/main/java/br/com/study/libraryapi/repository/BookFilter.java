@@ -0,0 +1,19 @@
+package br.com.study.libraryapi.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Optional filters of the book listing. Title and author match by prefix, isbn matches exactly.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookFilter {
+    private String title;
+    private String author;
+    private String isbn;
+}
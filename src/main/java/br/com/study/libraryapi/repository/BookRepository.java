@@ -1,8 +1,43 @@
 package br.com.study.libraryapi.repository;
 
+import br.com.study.libraryapi.dto.BookDTO;
 import br.com.study.libraryapi.model.entity.Book;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface BookRepository extends JpaRepository<Book, Long> {
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface BookRepository extends JpaRepository<Book, Long>, BookRepositoryCustom {
     boolean existsByIsbn(String isbn);
+
+    // Read path: rows go straight into BookDTOs, so no entities and no dirty-checking snapshots
+    @Transactional(readOnly = true)
+    @Query("select new br.com.study.libraryapi.dto.BookDTO(b.id, b.title, b.author, b.isbn, b.version) from Book b where b.id = :id")
+    Optional<BookDTO> findDtoById(@Param("id") Long id);
+
+    @Transactional(readOnly = true)
+    @Query("select new br.com.study.libraryapi.dto.BookDTO(b.id, b.title, b.author, b.isbn, b.version) from Book b where b.id in :ids")
+    List<BookDTO> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Transactional(readOnly = true)
+    @Query("select new br.com.study.libraryapi.dto.BookDTO(b.id, b.title, b.author, b.isbn, b.version) from Book b where b.isbn in :isbns")
+    List<BookDTO> findDtosByIsbnIn(@Param("isbns") Collection<String> isbns);
+
+    @Query("select b.isbn from Book b where b.isbn in :isbns")
+    List<String> findExistingIsbns(@Param("isbns") Collection<String> isbns);
+
+    // Keyset pages over the whole table, for maintenance jobs
+    List<Book> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select b.isbn from Book b")
+    Stream<String> streamAllIsbns();
 }
@@ -0,0 +1,23 @@
+package br.com.study.libraryapi.repository;
+
+import br.com.study.libraryapi.model.entity.Book;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface BookRepositoryCustom {
+    /**
+     * Keyset (seek) pagination: returns up to {@code limit} books with id greater than {@code afterId}, ordered by id.
+     * Unfiltered and isbn pages seek on the id, so their cost doesn't grow with how deep they are. A title or
+     * author prefix matches a range of the (title, id) or (author, id) index that isn't in id order, so each of
+     * those pages reads and sorts every match of the prefix; keep such prefixes selective.
+     */
+    List<Book> findPage(BookFilter filter, Long afterId, int limit);
+
+    /**
+     * Walks the whole table in id order with a forward-only cursor, handing each book to {@code action}
+     * and detaching it right after, so memory use doesn't depend on the table size.
+     * Must run inside a transaction.
+     */
+    void forEach(int fetchSize, Consumer<Book> action);
+}
@@ -0,0 +1,69 @@
+package br.com.study.libraryapi.repository;
+
+import br.com.study.libraryapi.model.entity.Book;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+public class BookRepositoryCustomImpl implements BookRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)     // Like the Spring Data query methods, so listing can run on a read replica
+    public List<Book> findPage(BookFilter filter, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Book> query = cb.createQuery(Book.class);
+        Root<Book> book = query.from(Book.class);
+
+        // Only the filters that were given end up in the query, so the database can pick the matching index.
+        // A prefix on title or author can't seek on id: the matching index entries are sorted by title first
+        List<Predicate> predicates = new ArrayList<>();
+        if (afterId != null)
+            predicates.add(cb.greaterThan(book.get("id"), afterId));
+        if (filter != null) {
+            if (StringUtils.hasText(filter.getTitle()))
+                predicates.add(cb.like(book.get("title"), escapeLike(filter.getTitle()) + "%", '\\'));
+            if (StringUtils.hasText(filter.getAuthor()))
+                predicates.add(cb.like(book.get("author"), escapeLike(filter.getAuthor()) + "%", '\\'));
+            if (StringUtils.hasText(filter.getIsbn()))
+                predicates.add(cb.equal(book.get("isbn"), filter.getIsbn()));
+        }
+
+        query.select(book)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.asc(book.get("id")));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public void forEach(int fetchSize, Consumer<Book> action) {
+        try (Stream<Book> books = entityManager.createQuery("select b from Book b order by b.id", Book.class)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream()) {
+            books.forEach(book -> {
+                action.accept(book);
+                entityManager.detach(book);
+            });
+        }
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
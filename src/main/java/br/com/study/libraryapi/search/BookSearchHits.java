@@ -0,0 +1,16 @@
+package br.com.study.libraryapi.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * One page of search results: book ids from the best match down, plus how many books matched in total.
+ */
+@Getter
+@AllArgsConstructor
+public class BookSearchHits {
+    private final List<Long> ids;
+    private final long total;
+}
@@ -0,0 +1,272 @@
+package br.com.study.libraryapi.search;
+
+import br.com.study.libraryapi.model.entity.Book;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory inverted index of the words in book titles and authors.
+ *
+ * A search matches the books containing every word of the query. They are ranked by the sum, over those
+ * words, of the word's idf times the weight of the field it appears in (title above author); ties go to the
+ * older book. Only the requested page is kept while scoring, so a search never sorts all its matches.
+ *
+ * Filled at startup by {@link BookSearchIndexLoader} and kept current by BookService on every save.
+ * Reads share a lock; writes and the swap at the end of a rebuild take it exclusively.
+ */
+@Component
+public class BookSearchIndex {
+
+    private static final float TITLE_WEIGHT = 2.0f;
+    private static final float AUTHOR_WEIGHT = 1.0f;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Segment current = new Segment();
+    private Segment rebuilding;     // Receives the writes made while a rebuild is running
+
+    public BookSearchIndex(MeterRegistry meterRegistry) {
+        Gauge.builder("library.search.index.documents", this, BookSearchIndex::documents)
+                .register(meterRegistry);
+        Gauge.builder("library.search.index.terms", this, BookSearchIndex::terms)
+                .register(meterRegistry);
+        Gauge.builder("library.search.index.memory", this, BookSearchIndex::memoryBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public void add(Book book) {
+        if (book == null || book.getId() == null)
+            return;
+        lock.writeLock().lock();
+        try {
+            current.add(book);
+            if (rebuilding != null)
+                rebuilding.add(book);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Removes a book as it was indexed, e.g. the previous state of an updated book. */
+    public void remove(Book book) {
+        if (book == null || book.getId() == null)
+            return;
+        lock.writeLock().lock();
+        try {
+            current.remove(book);
+            if (rebuilding != null)
+                rebuilding.remove(book);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Builds a fresh index from every book the source passes to its consumer and swaps it in.
+     * Searches keep using the old index meanwhile, and books saved during the rebuild land in both.
+     */
+    public void rebuild(Consumer<Consumer<Book>> source) {
+        Segment fresh = new Segment();
+        lock.writeLock().lock();
+        try {
+            rebuilding = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            source.accept(this::addToRebuild);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                rebuilding = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            current = fresh;
+            rebuilding = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param offset number of best hits to skip
+     * @param limit  maximum number of hits to return
+     */
+    public BookSearchHits search(String query, int offset, int limit) {
+        List<String> words = Tokenizer.tokens(query);
+        if (words.isEmpty() || limit <= 0)
+            return new BookSearchHits(Collections.emptyList(), 0);
+        lock.readLock().lock();
+        try {
+            return current.search(words, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long documents() {
+        lock.readLock().lock();
+        try {
+            return current.documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long terms() {
+        lock.readLock().lock();
+        try {
+            return current.terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Approximate heap used by the postings and the terms. */
+    public long memoryBytes() {
+        lock.readLock().lock();
+        try {
+            return current.memoryBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addToRebuild(Book book) {
+        lock.writeLock().lock();
+        try {
+            if (rebuilding != null)
+                rebuilding.add(book);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static final class Segment {
+
+        private final Map<String, Postings> terms = new HashMap<>();
+        private final Postings documents = new Postings();
+
+        void add(Book book) {
+            long id = book.getId();
+            documents.add(id, (byte) 0);
+            for (String word : Tokenizer.tokens(book.getTitle()))
+                terms.computeIfAbsent(word, w -> new Postings()).add(id, Postings.TITLE);
+            for (String word : Tokenizer.tokens(book.getAuthor()))
+                terms.computeIfAbsent(word, w -> new Postings()).add(id, Postings.AUTHOR);
+        }
+
+        void remove(Book book) {
+            long id = book.getId();
+            documents.remove(id);
+            List<String> words = Tokenizer.tokens(book.getTitle());
+            words.addAll(Tokenizer.tokens(book.getAuthor()));
+            for (String word : words) {
+                Postings postings = terms.get(word);
+                if (postings != null && postings.remove(id) && postings.size() == 0)
+                    terms.remove(word);
+            }
+        }
+
+        BookSearchHits search(List<String> words, int offset, int limit) {
+            Postings[] lists = new Postings[words.size()];
+            float[] idfs = new float[words.size()];
+            for (int i = 0; i < lists.length; i++) {
+                lists[i] = terms.get(words.get(i));
+                if (lists[i] == null)
+                    return new BookSearchHits(Collections.emptyList(), 0);
+            }
+            // Drive the intersection from the rarest word; the others are only probed
+            Postings[] sorted = lists.clone();
+            Arrays.sort(sorted, Comparator.comparingInt(Postings::size));
+            for (int i = 0; i < sorted.length; i++)
+                idfs[i] = (float) Math.log(1 + (double) documents.size() / sorted[i].size());
+
+            int wanted = offset + limit;
+            PriorityQueue<Hit> best = new PriorityQueue<>(Math.min(wanted, 1024) + 1, Hit.WORST_FIRST);
+            int[] cursors = new int[sorted.length];
+            long total = 0;
+            Postings driver = sorted[0];
+            candidates:
+            for (int d = 0; d < driver.size(); d++) {
+                long id = driver.id(d);
+                float score = idfs[0] * weight(driver.fields(d));
+                for (int i = 1; i < sorted.length; i++) {
+                    int position = sorted[i].seek(id, cursors[i]);
+                    if (position < 0) {
+                        cursors[i] = -(position + 1);
+                        if (cursors[i] >= sorted[i].size())
+                            break candidates;       // A list ran out: no later id can match
+                        continue candidates;
+                    }
+                    cursors[i] = position + 1;
+                    score += idfs[i] * weight(sorted[i].fields(position));
+                }
+                total++;
+                if (best.size() < wanted) {
+                    best.add(new Hit(id, score));
+                } else if (score > best.peek().score) {     // Equal scores keep the older (smaller) id
+                    best.poll();
+                    best.add(new Hit(id, score));
+                }
+            }
+
+            List<Long> ids = new ArrayList<>(best.size());
+            while (!best.isEmpty())
+                ids.add(best.poll().id);
+            Collections.reverse(ids);
+            List<Long> page = offset >= ids.size() ? Collections.emptyList() : ids.subList(offset, ids.size());
+            return new BookSearchHits(new ArrayList<>(page), total);
+        }
+
+        long memoryBytes() {
+            long bytes = documents.memoryBytes();
+            for (Map.Entry<String, Postings> term : terms.entrySet())
+                bytes += 48 + 2L * term.getKey().length() + term.getValue().memoryBytes();      // Entry, String and postings
+            return bytes;
+        }
+
+        private static float weight(byte fields) {
+            float weight = 0;
+            if ((fields & Postings.TITLE) != 0)
+                weight += TITLE_WEIGHT;
+            if ((fields & Postings.AUTHOR) != 0)
+                weight += AUTHOR_WEIGHT;
+            return weight;
+        }
+    }
+
+    private static final class Hit {
+
+        /** Lowest score first, and among equal scores the newest book, so the head is the one to drop. */
+        static final Comparator<Hit> WORST_FIRST = (a, b) -> a.score != b.score
+                ? Float.compare(a.score, b.score)
+                : Long.compare(b.id, a.id);
+
+        final long id;
+        final float score;
+
+        Hit(long id, float score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+}
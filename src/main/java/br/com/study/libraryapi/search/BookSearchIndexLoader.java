@@ -0,0 +1,41 @@
+package br.com.study.libraryapi.search;
+
+import br.com.study.libraryapi.repository.BookRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Builds the {@link BookSearchIndex} from the book table once the application has started.
+ */
+@Slf4j
+@Component
+public class BookSearchIndexLoader implements ApplicationRunner {
+
+    private static final int FETCH_SIZE = 1000;
+
+    private final BookRepository bookRepository;
+    private final BookSearchIndex searchIndex;
+
+    public BookSearchIndexLoader(BookRepository bookRepository, BookSearchIndex searchIndex) {
+        this.bookRepository = bookRepository;
+        this.searchIndex = searchIndex;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    /** Rebuilds the index from scratch; searches keep being answered by the old one meanwhile. */
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long start = System.nanoTime();
+        searchIndex.rebuild(sink -> bookRepository.forEach(FETCH_SIZE, sink));
+        log.info("Indexed {} books ({} terms) for search in {} ms ({} bytes)",
+                searchIndex.documents(), searchIndex.terms(), (System.nanoTime() - start) / 1_000_000, searchIndex.memoryBytes());
+    }
+}
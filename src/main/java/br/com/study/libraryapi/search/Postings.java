@@ -0,0 +1,81 @@
+package br.com.study.libraryapi.search;
+
+import java.util.Arrays;
+
+/**
+ * Ids of the books containing a term, sorted ascending, with the fields the term appears in.
+ * Ids come from a sequence, so new books almost always append at the end.
+ */
+final class Postings {
+
+    static final byte TITLE = 1;
+    static final byte AUTHOR = 2;
+
+    private long[] ids = new long[2];
+    private byte[] fields = new byte[2];
+    private int size;
+
+    /** @return true if the id wasn't in the list yet */
+    boolean add(long id, byte field) {
+        int index = size > 0 && ids[size - 1] < id ? -(size + 1) : Arrays.binarySearch(ids, 0, size, id);
+        if (index >= 0) {
+            fields[index] |= field;
+            return false;
+        }
+        index = -(index + 1);
+        if (size == ids.length) {
+            int capacity = size + (size >> 1) + 1;
+            ids = Arrays.copyOf(ids, capacity);
+            fields = Arrays.copyOf(fields, capacity);
+        }
+        System.arraycopy(ids, index, ids, index + 1, size - index);
+        System.arraycopy(fields, index, fields, index + 1, size - index);
+        ids[index] = id;
+        fields[index] = field;
+        size++;
+        return true;
+    }
+
+    /** @return true if the id was in the list */
+    boolean remove(long id) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index < 0)
+            return false;
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        System.arraycopy(fields, index + 1, fields, index, size - index - 1);
+        size--;
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long id(int index) {
+        return ids[index];
+    }
+
+    byte fields(int index) {
+        return fields[index];
+    }
+
+    /**
+     * Position of the id at or after {@code from}; if it isn't there, {@code -(insertion point) - 1}
+     * as in {@link Arrays#binarySearch}.
+     * Gallops forward before the binary search, so walking a long list in step with a short one stays cheap.
+     */
+    int seek(long id, int from) {
+        int step = 1;
+        int high = from;
+        while (high < size && ids[high] < id) {
+            from = high;
+            high += step;
+            step <<= 1;
+        }
+        return Arrays.binarySearch(ids, from, Math.min(high + 1, size), id);
+    }
+
+    long memoryBytes() {
+        return 16L + ids.length * 8L + fields.length;
+    }
+}
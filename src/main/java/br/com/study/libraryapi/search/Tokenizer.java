@@ -0,0 +1,54 @@
+package br.com.study.libraryapi.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits text into lowercase words of letters and digits, with accents removed ("Érico" and "erico" match).
+ */
+final class Tokenizer {
+
+    private Tokenizer() {
+    }
+
+    /** Distinct tokens, in order of appearance. */
+    static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null)
+            return tokens;
+        String folded = isAscii(text) ? text : stripAccents(text);
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= folded.length(); i++) {
+            char c = i < folded.length() ? folded.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                token.append(Character.toLowerCase(c));
+            } else if (token.length() > 0) {
+                String word = token.toString();
+                if (!tokens.contains(word))     // Titles are short; a list beats a set here
+                    tokens.add(word);
+                token.setLength(0);
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0x7f)
+                return false;
+        }
+        return true;
+    }
+
+    private static String stripAccents(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder stripped = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK)
+                stripped.append(c);
+        }
+        return stripped.toString();
+    }
+}
@@ -0,0 +1,25 @@
+package br.com.study.libraryapi.service;
+
+import br.com.study.libraryapi.model.entity.Book;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class BatchItemResult {
+    private final Book book;
+    private final String error;
+
+    public static BatchItemResult saved(Book book){
+        return new BatchItemResult(book, null);
+    }
+
+    public static BatchItemResult failed(Book book, String error){
+        return new BatchItemResult(book, error);
+    }
+
+    public boolean isSuccess(){
+        return error == null;
+    }
+}
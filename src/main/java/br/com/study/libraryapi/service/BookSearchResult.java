@@ -0,0 +1,14 @@
+package br.com.study.libraryapi.service;
+
+import br.com.study.libraryapi.dto.BookDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class BookSearchResult {
+    private final List<BookDTO> books;
+    private final long total;
+}
@@ -1,11 +1,30 @@
 package br.com.study.libraryapi.service;
 
+import br.com.study.libraryapi.dto.BookChangeDTO;
+import br.com.study.libraryapi.dto.BookDTO;
 import br.com.study.libraryapi.model.entity.Book;
+import br.com.study.libraryapi.repository.BookFilter;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface BookService {
     Book save(Book any);
 
-    Optional<Book> getById(Long id);
+    List<BatchItemResult> saveAll(List<Book> books);
+
+    Optional<BookDTO> getById(Long id);
+
+    List<Optional<BookDTO>> getByIds(List<Long> ids);
+
+    List<Optional<BookDTO>> getByIsbns(List<String> isbns);
+
+    List<Book> find(BookFilter filter, Long afterId, int size);
+
+    BookSearchResult search(String query, int offset, int limit);
+
+    void exportAll(Consumer<Book> action);
+
+    List<BookChangeDTO> getChanges(long since, int limit);
 }
@@ -1,35 +1,247 @@
 package br.com.study.libraryapi.service;
 
+import br.com.study.libraryapi.cache.BookCache;
+import br.com.study.libraryapi.changes.BookChangeLog;
+import br.com.study.libraryapi.dto.BookChangeDTO;
+import br.com.study.libraryapi.dto.BookDTO;
 import br.com.study.libraryapi.exception.BusinessException;
+import br.com.study.libraryapi.isbn.IsbnIndex;
+import br.com.study.libraryapi.isbn.Isbns;
+import br.com.study.libraryapi.mapper.BookMapper;
+import br.com.study.libraryapi.metrics.BusinessErrorCounter;
 import br.com.study.libraryapi.model.entity.Book;
+import br.com.study.libraryapi.repository.BookFilter;
 import br.com.study.libraryapi.repository.BookRepository;
+import br.com.study.libraryapi.search.BookSearchHits;
+import br.com.study.libraryapi.search.BookSearchIndex;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class BookServiceImpl implements BookService {
 
+    private static final int EXPORT_FETCH_SIZE = 500;
+    private static final int LOOKUP_CHUNK_SIZE = 500;       // Keeps IN lists well below driver parameter limits
+    private static final BusinessException ISBN_ALREADY_EXISTS = new BusinessException("Isbn already exists!");
+
     private BookRepository bookRepository;
+    private BookCache bookCache;
+    private IsbnIndex isbnIndex;
+    private BookSearchIndex searchIndex;
+    private BookChangeLog changeLog;
+    private BookMapper bookMapper;
+    private BusinessErrorCounter businessErrors;
 
-    public BookServiceImpl(BookRepository repository){
+    public BookServiceImpl(BookRepository repository, BookCache cache, IsbnIndex index, BookSearchIndex search,
+                           BookChangeLog changeLog, BookMapper mapper, BusinessErrorCounter businessErrors){
         this.bookRepository = repository;
+        this.bookCache = cache;
+        this.isbnIndex = index;
+        this.searchIndex = search;
+        this.changeLog = changeLog;
+        this.bookMapper = mapper;
+        this.businessErrors = businessErrors;
     }
 
     @Override
+    @Transactional      // The book and its change log entry commit together
     public Book save(Book book) {
-        if(bookRepository.existsByIsbn(book.getIsbn()))
-            throw new BusinessException("Isbn already exists!");
-        return bookRepository.save(book);
+        canonicalizeIsbn(book);
+        // Only probable duplicates cost a query; for the rest the unique index on isbn is the check
+        if (isbnIndex.mightContain(book.getIsbn()) && confirmIsbnExists(book.getIsbn()))
+            throw ISBN_ALREADY_EXISTS;
+        try {
+            Book saved = bookRepository.saveAndFlush(book);
+            changeLog.record(Collections.singletonList(saved));
+            BookDTO dto = bookMapper.toDto(saved);
+            afterCommit(() -> {
+                bookCache.put(dto);       // Replaces a cached "not found", and reads of it don't depend on replica lag
+                isbnIndex.add(dto.getIsbn());
+                searchIndex.add(saved);
+            });
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            if (isIsbnViolation(e))
+                throw ISBN_ALREADY_EXISTS;
+            throw e;
+        }
+    }
+
+    @Override
+    @Transactional
+    public List<BatchItemResult> saveAll(List<Book> books) {
+        books.forEach(BookServiceImpl::canonicalizeIsbn);
+        // One query for the whole batch, over all of its isbns: an isbn the index missed would otherwise only
+        // fail at the flush and take the whole batch down with it, instead of being reported on its own item
+        Set<String> isbns = books.stream().map(Book::getIsbn).collect(Collectors.toSet());
+        Set<String> takenIsbns = new HashSet<>(bookRepository.findExistingIsbns(isbns));
+
+        List<BatchItemResult> results = new ArrayList<>(books.size());
+        List<Book> toInsert = new ArrayList<>(books.size());
+        for (Book book : books) {
+            if (takenIsbns.add(book.getIsbn())) {      // Also rejects duplicates inside the batch itself
+                toInsert.add(book);
+                results.add(null);
+            } else {
+                results.add(BatchItemResult.failed(book, ISBN_ALREADY_EXISTS.getMessage()));
+                businessErrors.increment(ISBN_ALREADY_EXISTS.getMessage());     // Reported in the results, never thrown
+            }
+        }
+
+        // Ids come from the pooled sequence, so Hibernate can group these inserts into JDBC batches
+        List<Book> saved = bookRepository.saveAll(toInsert);
+        try {
+            bookRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request inserted one of these isbns after the check above
+            if (isIsbnViolation(e))
+                throw ISBN_ALREADY_EXISTS;
+            throw e;
+        }
+        changeLog.record(saved);
+        afterCommit(() -> {
+            for (Book savedBook : saved) {
+                bookCache.evict(savedBook.getId());
+                isbnIndex.add(savedBook.getIsbn());
+                searchIndex.add(savedBook);
+            }
+        });
+        int next = 0;
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) == null)
+                results.set(i, BatchItemResult.saved(saved.get(next++)));
+        }
+        return results;
+    }
+
+    @Override
+    public Optional<BookDTO> getById(Long id) {
+        // A miss is one read-only projection query (on the replica when one is configured)
+        return bookCache.get(id, bookRepository::findDtoById);
+    }
+
+    @Override
+    public List<Optional<BookDTO>> getByIds(List<Long> ids) {
+        // Cached ids are answered from memory; the rest are loaded together
+        Map<Long, Optional<BookDTO>> books = bookCache.getAll(ids, missing -> findInChunks(missing, bookRepository::findDtosByIdIn));
+        return ids.stream().map(books::get).collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Optional<BookDTO>> getByIsbns(List<String> isbns) {
+        // Every isbn is queried: the isbn index only knows what this instance loaded and saved, so it can't
+        // answer "not found" for books written by other instances or outside the API
+        Set<String> keys = new LinkedHashSet<>();
+        for (String isbn : isbns) {
+            keys.add(lookupKey(isbn));
+            keys.add(isbn);        // Rows written before isbns were canonicalized keep their form
+        }
+        Map<String, BookDTO> books = new HashMap<>();
+        for (BookDTO book : findInChunks(keys, bookRepository::findDtosByIsbnIn)) {
+            books.put(lookupKey(book.getIsbn()), book);
+            bookCache.put(book);
+        }
+        return isbns.stream().map(isbn -> Optional.ofNullable(books.get(lookupKey(isbn)))).collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Book> find(BookFilter filter, Long afterId, int size) {
+        String isbn = Isbns.canonical(filter.getIsbn());
+        if (isbn != null && !isbn.equals(filter.getIsbn()))
+            filter = BookFilter.builder().title(filter.getTitle()).author(filter.getAuthor()).isbn(isbn).build();
+        return bookRepository.findPage(filter, afterId, size);
     }
 
     @Override
-    public Optional<Book> getById(Long id) {
-        Optional<Book> returnedBook = bookRepository.findById(id);
-        if(returnedBook.isPresent())
-            return returnedBook;
-        else
-            throw new BusinessException("Book not found!");
+    public BookSearchResult search(String query, int offset, int limit) {
+        BookSearchHits hits = searchIndex.search(query, offset, limit);
+        // The index only knows ids; the books come from the cache or a single IN query, in rank order
+        List<BookDTO> books = getByIds(hits.getIds()).stream()
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .collect(Collectors.toList());
+        return new BookSearchResult(books, hits.getTotal());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<Book> action) {
+        bookRepository.forEach(EXPORT_FETCH_SIZE, action);
+    }
+
+    @Override
+    public List<BookChangeDTO> getChanges(long since, int limit) {
+        return changeLog.changesAfter(since, limit);
+    }
+
+    /**
+     * Runs {@code action} once the current transaction commits, so the in-memory cache and indexes never hold
+     * books a failed commit didn't store. Without a transaction it runs right away.
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static <T> List<BookDTO> findInChunks(Collection<T> keys, Function<List<T>, List<BookDTO>> query) {
+        List<T> all = new ArrayList<>(keys);
+        List<BookDTO> books = new ArrayList<>(all.size());
+        for (int from = 0; from < all.size(); from += LOOKUP_CHUNK_SIZE)
+            books.addAll(query.apply(all.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, all.size()))));
+        return books;
+    }
+
+    /** Stores valid isbns as their compact ISBN-13; anything else is left as given. */
+    private static void canonicalizeIsbn(Book book) {
+        String isbn = Isbns.canonical(book.getIsbn());
+        if (isbn != null)
+            book.setIsbn(isbn);
+    }
+
+    private static String lookupKey(String isbn) {
+        String canonical = Isbns.canonical(isbn);
+        return canonical != null ? canonical : isbn;
+    }
+
+    private boolean confirmIsbnExists(String isbn) {
+        boolean exists = bookRepository.existsByIsbn(isbn);
+        if (!exists)
+            isbnIndex.falsePositive();
+        return exists;
+    }
+
+    private static boolean isIsbnViolation(DataIntegrityViolationException exception) {
+        if (!(exception.getCause() instanceof ConstraintViolationException))
+            return false;
+        String constraint = ((ConstraintViolationException) exception.getCause()).getConstraintName();
+        // Without a constraint name it can't be told apart from other violations, so it isn't reported as a duplicate
+        return constraint != null && constraint.toLowerCase().contains(Book.ISBN_CONSTRAINT);
     }
 }
@@ -0,0 +1,47 @@
+package br.com.study.libraryapi.startup;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Tells the {@link StartupReport} about the first successful GET /api/books/{id}, in sync or async mode.
+ * After that it only reads a flag.
+ */
+public class FirstReadFilter extends OncePerRequestFilter {
+
+    static final String BOOK_PATTERN = "/api/books/{id}";
+
+    private final StartupReport startupReport;
+
+    public FirstReadFilter(StartupReport startupReport) {
+        this.startupReport = startupReport;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return startupReport.isFirstReadSeen() || !"GET".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        chain.doFilter(request, response);
+        if (request.isAsyncStarted())
+            return;
+        int status = response.getStatus();
+        if ((status == HttpServletResponse.SC_OK || status == HttpServletResponse.SC_NOT_MODIFIED)
+                && BOOK_PATTERN.equals(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE)))
+            startupReport.readServed();
+    }
+}
@@ -0,0 +1,90 @@
+package br.com.study.libraryapi.startup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.metrics.StartupStep;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Logs where startup time went once the application is ready: JVM start to ready, the top-level startup
+ * phases and the slowest beans (recorded by the {@link BufferingApplicationStartup} set up in main), and
+ * later the time from JVM start to the first successful GET /api/books/{id}, which with lazy initialization
+ * also pays for whatever startup was deferred.
+ */
+@Slf4j
+public class StartupReport implements ApplicationListener<ApplicationReadyEvent> {
+
+    static final String BEAN_INSTANTIATE = "spring.beans.instantiate";
+
+    private final int slowestBeans;
+    private final AtomicBoolean firstReadSeen = new AtomicBoolean();
+
+    public StartupReport(int slowestBeans) {
+        this.slowestBeans = slowestBeans;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        StringBuilder report = new StringBuilder("Startup report: ready ")
+                .append(sinceJvmStart().toMillis()).append(" ms after JVM start");
+        if (event.getApplicationContext().getApplicationStartup() instanceof BufferingApplicationStartup) {
+            StartupTimeline timeline = ((BufferingApplicationStartup) event.getApplicationContext().getApplicationStartup()).getBufferedTimeline();
+            report.append("\n  phases:");
+            phases(timeline).forEach( (name, duration) -> report.append("\n    ").append(name).append(' ').append(duration.toMillis()).append(" ms"));
+            report.append("\n  slowest beans (including their dependencies):");
+            for (StartupTimeline.TimelineEvent bean : slowestBeans(timeline, slowestBeans))
+                report.append("\n    ").append(tag(bean.getStartupStep(), "beanName")).append(' ').append(bean.getDuration().toMillis()).append(" ms");
+        }
+        log.info(report.toString());
+    }
+
+    /** Called for each successful GET /api/books/{id}; only the first one is reported. */
+    public void readServed() {
+        if (firstReadSeen.compareAndSet(false, true))
+            log.info("Startup report: first successful GET /api/books/{id} {} ms after JVM start", sinceJvmStart().toMillis());
+    }
+
+    public boolean isFirstReadSeen() {
+        return firstReadSeen.get();
+    }
+
+    /** Total time per top-level step, in the order the steps started. */
+    static Map<String, Duration> phases(StartupTimeline timeline) {
+        Map<String, Duration> phases = new LinkedHashMap<>();
+        for (StartupTimeline.TimelineEvent event : timeline.getEvents())
+            if (event.getStartupStep().getParentId() == null)
+                phases.merge(event.getStartupStep().getName(), event.getDuration(), Duration::plus);
+        return phases;
+    }
+
+    static List<StartupTimeline.TimelineEvent> slowestBeans(StartupTimeline timeline, int limit) {
+        List<StartupTimeline.TimelineEvent> beans = new ArrayList<>();
+        for (StartupTimeline.TimelineEvent event : timeline.getEvents())
+            if (BEAN_INSTANTIATE.equals(event.getStartupStep().getName()))
+                beans.add(event);
+        beans.sort(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed());
+        return beans.size() > limit ? beans.subList(0, limit) : beans;
+    }
+
+    private static String tag(StartupStep step, String key) {
+        for (StartupStep.Tag tag : step.getTags())
+            if (tag.getKey().equals(key))
+                return tag.getValue();
+        return step.getName();
+    }
+
+    private static Duration sinceJvmStart() {
+        return Duration.ofMillis(System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime());
+    }
+}
@@ -0,0 +1,29 @@
+package br.com.study.libraryapi.startup;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+/**
+ * Startup timing report, on with {@code library.startup.report.enabled=true} (the fast-startup profile turns it on).
+ */
+@Configuration
+@ConditionalOnProperty(name = "library.startup.report.enabled", havingValue = "true")
+public class StartupReportConfig {
+
+    @Bean
+    @Lazy(false)
+    public StartupReport startupReport(@Value("${library.startup.report.slowest-beans:10}") int slowestBeans) {
+        return new StartupReport(slowestBeans);
+    }
+
+    @Bean
+    public FilterRegistrationBean<FirstReadFilter> firstReadFilter(StartupReport startupReport) {
+        FilterRegistrationBean<FirstReadFilter> registration = new FilterRegistrationBean<>(new FirstReadFilter(startupReport));
+        registration.addUrlPatterns("/api/books/*");
+        return registration;
+    }
+}
@@ -0,0 +1,33 @@
+package br.com.study.libraryapi.web;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+/**
+ * Response compression on /api/*, on with {@code library.compression.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "library.compression.enabled", havingValue = "true")
+public class CompressionConfig {
+
+    @Bean
+    public FilterRegistrationBean<CompressionFilter> compressionFilter(
+            @Value("${library.compression.level:6}") int level,
+            @Value("${library.compression.min-response-size:2048}") int minResponseSize,
+            @Value("${library.compression.mime-types:application/json,application/cbor,application/x-ndjson,text/csv}") List<String> mimeTypes) {
+        FilterRegistrationBean<CompressionFilter> registration =
+                new FilterRegistrationBean<>(new CompressionFilter(level, minResponseSize, MediaType.parseMediaTypes(mimeTypes)));
+        registration.addUrlPatterns("/api/*");
+        registration.setAsyncSupported(true);
+        // Ahead of the other filters, so whatever they write is compressed too
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 100);
+        return registration;
+    }
+}
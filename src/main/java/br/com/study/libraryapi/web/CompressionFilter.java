@@ -0,0 +1,395 @@
+package br.com.study.libraryapi.web;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * gzip/deflate response compression, chosen from the request's Accept-Encoding (gzip first).
+ *
+ * Compresses on the fly: the body is held back only until it reaches {@code minSize} bytes, then the
+ * headers are sent and everything else streams through the compressor, so large pages and exports are
+ * never buffered whole. Smaller bodies, other content types and non-2xx responses go out untouched.
+ * Event streams are never compressed and go out on every flush, or their events would sit in the filter.
+ * Async requests (DeferredResult, StreamingResponseBody) keep the same compressing stream across
+ * dispatches and are finished once the last dispatch returns.
+ */
+public class CompressionFilter extends OncePerRequestFilter {
+
+    private static final String RESPONSE_ATTRIBUTE = CompressionFilter.class.getName() + ".RESPONSE";
+    private static final int STREAM_BUFFER_SIZE = 8 * 1024;
+
+    enum Encoding {
+        GZIP("gzip"), DEFLATE("deflate");
+
+        final String token;
+
+        Encoding(String token) {
+            this.token = token;
+        }
+    }
+
+    private final int level;
+    private final int minSize;
+    private final List<MediaType> mimeTypes;
+
+    public CompressionFilter(int level, int minSize, List<MediaType> mimeTypes) {
+        if (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION)
+            throw new IllegalArgumentException("Compression level must be between 1 and 9: " + level);
+        this.level = level;
+        this.minSize = minSize;
+        this.mimeTypes = mimeTypes;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        CompressingResponse compressing = (CompressingResponse) request.getAttribute(RESPONSE_ATTRIBUTE);
+        if (compressing == null && isAsyncDispatch(request)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (compressing == null) {
+            Encoding encoding = negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (encoding == null || "HEAD".equals(request.getMethod())) {
+                chain.doFilter(request, response);
+                return;
+            }
+            compressing = new CompressingResponse(response, encoding);
+            request.setAttribute(RESPONSE_ATTRIBUTE, compressing);
+        }
+
+        chain.doFilter(request, compressing);
+
+        // Still being written on another thread; a later dispatch finishes it
+        if (!request.isAsyncStarted()) {
+            request.removeAttribute(RESPONSE_ATTRIBUTE);
+            compressing.finish();
+        }
+    }
+
+    /** gzip if the client accepts it, else deflate if it does, else null. Codings with q=0 are refused. */
+    static Encoding negotiate(String acceptEncoding) {
+        if (acceptEncoding == null)
+            return null;
+        Boolean gzip = null;
+        Boolean deflate = null;
+        boolean any = false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.split(";");
+            String coding = tokens[0].trim().toLowerCase(Locale.ROOT);
+            boolean accepted = true;
+            for (int i = 1; i < tokens.length; i++) {
+                String parameter = tokens[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        accepted = Double.parseDouble(parameter.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        accepted = false;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip"))
+                gzip = accepted;
+            else if (coding.equals("deflate"))
+                deflate = accepted;
+            else if (coding.equals("*"))
+                any = accepted;
+        }
+        // "*" stands for the codings that aren't listed
+        if (gzip != null ? gzip : any)
+            return Encoding.GZIP;
+        if (deflate != null ? deflate : any)
+            return Encoding.DEFLATE;
+        return null;
+    }
+
+    private boolean isCompressible(HttpServletResponse response) {
+        int status = response.getStatus();
+        if (status < 200 || status >= 300 || status == HttpServletResponse.SC_NO_CONTENT
+                || status == HttpServletResponse.SC_PARTIAL_CONTENT)
+            return false;
+        if (response.getHeader(HttpHeaders.CONTENT_ENCODING) != null)
+            return false;
+        MediaType contentType = contentType(response);
+        if (contentType == null || MediaType.TEXT_EVENT_STREAM.includes(contentType))
+            return false;
+        for (MediaType mimeType : mimeTypes)
+            if (mimeType.includes(contentType))
+                return true;
+        return false;
+    }
+
+    private static MediaType contentType(HttpServletResponse response) {
+        if (response.getContentType() == null)
+            return null;
+        try {
+            return MediaType.parseMediaType(response.getContentType());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private final class CompressingResponse extends HttpServletResponseWrapper {
+
+        private final Encoding encoding;
+        private final CompressingOutputStream stream = new CompressingOutputStream(this);
+        private PrintWriter writer;
+        private long contentLength = -1;
+
+        CompressingResponse(HttpServletResponse response, Encoding encoding) {
+            super(response);
+            this.encoding = encoding;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return stream;
+        }
+
+        @Override
+        public PrintWriter getWriter() {
+            if (writer == null) {
+                String charset = getCharacterEncoding();
+                writer = new PrintWriter(new OutputStreamWriter(stream,
+                        charset == null ? StandardCharsets.ISO_8859_1 : Charset.forName(charset)));
+            }
+            return writer;
+        }
+
+        // The length is only known to be right if the body goes out uncompressed
+        @Override
+        public void setContentLength(int length) {
+            this.contentLength = length;
+        }
+
+        @Override
+        public void setContentLengthLong(long length) {
+            this.contentLength = length;
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name))
+                contentLength = value == null ? -1 : Long.parseLong(value);
+            else
+                super.setHeader(name, value);
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name))
+                setHeader(name, value);
+            else
+                super.addHeader(name, value);
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null)
+                writer.flush();
+            stream.flush();
+        }
+
+        @Override
+        public void resetBuffer() {
+            stream.discard();
+            super.resetBuffer();
+        }
+
+        @Override
+        public void reset() {
+            stream.discard();
+            contentLength = -1;
+            super.reset();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            stream.bypass();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            stream.bypass();
+            super.sendError(sc);
+        }
+
+        /** Decides with what was written so far and routes the body accordingly. */
+        OutputStream open(boolean complete, int bufferedSize) throws IOException {
+            HttpServletResponse response = (HttpServletResponse) getResponse();
+            boolean compress = bufferedSize >= minSize && !response.isCommitted() && isCompressible(response);
+            if (!compress) {
+                if (contentLength >= 0)
+                    response.setContentLengthLong(contentLength);
+                else if (complete && !response.isCommitted())
+                    response.setContentLength(bufferedSize);
+                return response.getOutputStream();
+            }
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding.token);
+            String etag = response.getHeader(HttpHeaders.ETAG);
+            if (etag != null && !etag.startsWith("W/"))     // Not the same bytes as the identity representation
+                response.setHeader(HttpHeaders.ETAG, "W/" + etag);
+            return encoding == Encoding.GZIP
+                    ? new LeveledGzipOutputStream(response.getOutputStream(), level)
+                    : new LeveledDeflaterOutputStream(response.getOutputStream(), level);
+        }
+
+        void finish() throws IOException {
+            if (writer != null)
+                writer.flush();
+            stream.finish();
+        }
+    }
+
+    private final class CompressingOutputStream extends ServletOutputStream {
+
+        private final CompressingResponse response;
+        private ByteArrayOutputStream pending = new ByteArrayOutputStream(256);
+        private OutputStream target;
+        private boolean bypassed;
+        private boolean finished;
+
+        CompressingOutputStream(CompressingResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (finished)
+                throw new IOException("Response already finished");
+            if (target == null) {
+                pending.write(bytes, offset, length);
+                if (pending.size() >= minSize)
+                    open(false);
+                return;
+            }
+            target.write(bytes, offset, length);
+        }
+
+        // Held back bytes stay held until the decision is made, except for event streams, where a flush
+        // means the event must reach the client now
+        @Override
+        public void flush() throws IOException {
+            if (target == null && !bypassed && !finished && isEventStream())
+                open(false);
+            if (target != null)
+                target.flush();
+        }
+
+        private boolean isEventStream() {
+            MediaType contentType = contentType((HttpServletResponse) response.getResponse());
+            return contentType != null && MediaType.TEXT_EVENT_STREAM.includes(contentType);
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+        }
+
+        void discard() {
+            if (target == null)
+                pending.reset();
+        }
+
+        void bypass() {
+            discard();
+            bypassed = true;
+        }
+
+        void finish() throws IOException {
+            if (finished || bypassed)
+                return;
+            finished = true;
+            if (target == null)
+                open(true);
+            if (target instanceof DeflaterOutputStream) {
+                DeflaterOutputStream compressor = (DeflaterOutputStream) target;
+                try {
+                    compressor.finish();
+                } finally {
+                    if (compressor instanceof Releasable)
+                        ((Releasable) compressor).release();
+                }
+            }
+            target.flush();
+        }
+
+        private void open(boolean complete) throws IOException {
+            target = response.open(complete, pending.size());
+            pending.writeTo(target);
+            pending = null;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            throw new UnsupportedOperationException("Non-blocking writes aren't supported by " + CompressionFilter.class.getSimpleName());
+        }
+    }
+
+    private interface Releasable {
+        void release();
+    }
+
+    /** zlib-wrapped deflate ("deflate" content coding) with a compression level and sync flush. */
+    private static final class LeveledDeflaterOutputStream extends DeflaterOutputStream implements Releasable {
+        LeveledDeflaterOutputStream(OutputStream out, int level) {
+            super(out, new Deflater(level), STREAM_BUFFER_SIZE, true);
+        }
+
+        @Override
+        public void release() {
+            def.end();
+        }
+    }
+
+    /** GZIPOutputStream with a compression level, and sync flush so streamed responses reach the client. */
+    private static final class LeveledGzipOutputStream extends GZIPOutputStream implements Releasable {
+        LeveledGzipOutputStream(OutputStream out, int level) throws IOException {
+            super(out, STREAM_BUFFER_SIZE, true);
+            def.setLevel(level);
+        }
+
+        @Override
+        public void release() {
+            def.end();
+        }
+    }
+}
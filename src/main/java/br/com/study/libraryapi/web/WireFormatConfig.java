@@ -0,0 +1,46 @@
+package br.com.study.libraryapi.web;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Binary CBOR ({@code application/cbor}) next to JSON for every Jackson-mapped request and response body.
+ * Clients opt in with {@code Accept}/{@code Content-Type: application/cbor}; JSON stays the default.
+ * The CBOR mapper comes from Boot's builder, so it shares the JSON mapper's settings.
+ * Implements WebMvcConfigurer so it's also picked up by the @WebMvcTest slices.
+ */
+@Configuration
+public class WireFormatConfig implements WebMvcConfigurer {
+
+    private final Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+    public WireFormatConfig(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        this.objectMapperBuilder = objectMapperBuilder;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Spring registers a CBOR converter with a plain mapper when the format is on the classpath; replace it
+        converters.removeIf(MappingJackson2CborHttpMessageConverter.class::isInstance);
+        MappingJackson2CborHttpMessageConverter cbor =
+                new MappingJackson2CborHttpMessageConverter(objectMapperBuilder.factory(new CBORFactory()).build());
+
+        // Right after JSON, so Accept: */* still gets JSON
+        int json = indexOfJson(converters);
+        converters.add(json < 0 ? converters.size() : json + 1, cbor);
+    }
+
+    private static int indexOfJson(List<HttpMessageConverter<?>> converters) {
+        for (int i = 0; i < converters.size(); i++)
+            if (converters.get(i) instanceof MappingJackson2HttpMessageConverter)
+                return i;
+        return -1;
+    }
+}
@@ -0,0 +1,32 @@
+package br.com.study.libraryapi.writebehind;
+
+import br.com.study.libraryapi.model.entity.Book;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Where a create accepted by the {@link WriteBehindQueue} stands. Immutable; each change replaces it.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class CreateStatus {
+
+    public enum State { PENDING, CREATED, FAILED }
+
+    private final State state;
+    private final Book book;
+    private final String error;
+
+    public static CreateStatus pending(Book book){
+        return new CreateStatus(State.PENDING, book, null);
+    }
+
+    public static CreateStatus created(Book book){
+        return new CreateStatus(State.CREATED, book, null);
+    }
+
+    public static CreateStatus failed(Book book, String error){
+        return new CreateStatus(State.FAILED, book, error);
+    }
+}
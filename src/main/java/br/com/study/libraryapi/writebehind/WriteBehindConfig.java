@@ -0,0 +1,29 @@
+package br.com.study.libraryapi.writebehind;
+
+import br.com.study.libraryapi.service.BookService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Write-behind creates (POST /api/books/async), on with {@code library.write-behind.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "library.write-behind.enabled", havingValue = "true")
+public class WriteBehindConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public WriteBehindQueue writeBehindQueue(BookService bookService, MeterRegistry meterRegistry,
+                                             @Value("${library.write-behind.queue-capacity:10000}") int queueCapacity,
+                                             @Value("${library.write-behind.batch-size:500}") int batchSize,
+                                             @Value("${library.write-behind.max-delay:50ms}") Duration maxDelay,
+                                             @Value("${library.write-behind.status-ttl:1h}") Duration statusTtl,
+                                             @Value("${library.write-behind.status-max-entries:100000}") long statusMaxEntries,
+                                             @Value("${library.write-behind.shutdown-timeout:30s}") Duration shutdownTimeout) {
+        return new WriteBehindQueue(bookService, queueCapacity, batchSize, maxDelay, statusTtl, statusMaxEntries, shutdownTimeout, meterRegistry);
+    }
+}
@@ -0,0 +1,217 @@
+package br.com.study.libraryapi.writebehind;
+
+import br.com.study.libraryapi.exception.BusinessException;
+import br.com.study.libraryapi.metrics.BusinessErrorCounter;
+import br.com.study.libraryapi.model.entity.Book;
+import br.com.study.libraryapi.service.BatchItemResult;
+import br.com.study.libraryapi.service.BookService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind creates: {@link #submit} only queues the book and hands back a tracking id, and a single
+ * writer thread stores queued books in groups through {@link BookService#saveAll}, so a whole group costs
+ * one isbn check query and one transaction. Outcomes are kept for a while under the tracking id, up to a
+ * maximum number of them so a bulk feed can't fill the heap with statuses.
+ *
+ * A full queue rejects new books right away ({@link RejectedExecutionException}, answered with 503);
+ * {@link #shutdown} (run when the context closes, after the web server stopped taking requests) stops accepting and lets the writer store everything already accepted.
+ * A create that still got into the queue after the writer's last look is marked failed, never left pending.
+ */
+@Slf4j
+public class WriteBehindQueue {
+
+    static final String STORE_FAILED = "Could not store the book, try again!";
+
+    private final BookService bookService;
+    private final BlockingQueue<PendingCreate> queue;
+    private final Cache<String, CreateStatus> statuses;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final Duration shutdownTimeout;
+    private final Thread writer;
+    private volatile boolean accepting = true;
+
+    private final Counter created;
+    private final Counter failed;
+    private final Counter rejected;
+    private final DistributionSummary batchSizes;
+    private final Timer commitTimer;
+    private final BusinessErrorCounter businessErrors;
+
+    public WriteBehindQueue(BookService bookService, int queueCapacity, int batchSize, Duration maxDelay,
+                            Duration statusTtl, long statusMaxEntries, Duration shutdownTimeout, MeterRegistry meterRegistry) {
+        this.bookService = bookService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.statuses = Caffeine.newBuilder()
+                .expireAfterWrite(statusTtl)
+                .maximumSize(statusMaxEntries)
+                .build();
+        this.batchSize = batchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.shutdownTimeout = shutdownTimeout;
+
+        Gauge.builder("library.writebehind.queue.size", queue, BlockingQueue::size).register(meterRegistry);
+        this.created = Counter.builder("library.writebehind.items").tag("result", "created").register(meterRegistry);
+        this.failed = Counter.builder("library.writebehind.items").tag("result", "failed").register(meterRegistry);
+        this.rejected = Counter.builder("library.writebehind.items").tag("result", "rejected").register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("library.writebehind.batch.size").register(meterRegistry);
+        this.commitTimer = Timer.builder("library.writebehind.commit").register(meterRegistry);
+        this.businessErrors = new BusinessErrorCounter(meterRegistry);
+
+        this.writer = new Thread(this::writeLoop, "book-write-behind");
+        this.writer.start();
+    }
+
+    /**
+     * @return the tracking id of the create
+     * @throws RejectedExecutionException if the queue is full or shutting down
+     */
+    public String submit(Book book) {
+        if (!accepting)
+            throw new RejectedExecutionException("Write-behind queue is shutting down");
+        String trackingId = UUID.randomUUID().toString();
+        statuses.put(trackingId, CreateStatus.pending(book));
+        PendingCreate pending = new PendingCreate(trackingId, book);
+        if (!queue.offer(pending)) {
+            statuses.invalidate(trackingId);
+            rejected.increment();
+            throw new RejectedExecutionException("Write-behind queue is full");
+        }
+        // Shutdown began between the check above and the offer: take the book back unless the writer or
+        // shutdown already got it, in which case its status tells how it ended
+        if (!accepting && queue.remove(pending)) {
+            statuses.invalidate(trackingId);
+            throw new RejectedExecutionException("Write-behind queue is shutting down");
+        }
+        return trackingId;
+    }
+
+    public Optional<CreateStatus> status(String trackingId) {
+        return Optional.ofNullable(statuses.getIfPresent(trackingId));
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /** Stops accepting creates and waits for the writer to store the ones already queued. */
+    public void shutdown() throws InterruptedException {
+        accepting = false;
+        writer.join(shutdownTimeout.toMillis());
+        if (writer.isAlive()) {
+            log.warn("Write-behind writer didn't drain in {}; {} books weren't stored", shutdownTimeout, queue.size());
+            writer.interrupt();
+        }
+        // Whatever the writer won't take anymore: left behind by a timeout, or queued after its last look
+        List<PendingCreate> leftovers = new ArrayList<>();
+        queue.drainTo(leftovers);
+        for (PendingCreate pending : leftovers)
+            publish(pending, CreateStatus.failed(pending.book, STORE_FAILED));
+    }
+
+    private void writeLoop() {
+        List<PendingCreate> batch = new ArrayList<>(batchSize);
+        while (accepting || !queue.isEmpty()) {
+            try {
+                PendingCreate first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null)
+                    continue;
+                batch.add(first);
+                // Linger a little so a trickle of creates still shares a transaction
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || !accepting)
+                        break;
+                    PendingCreate next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next != null)
+                        batch.add(next);
+                }
+                store(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Write-behind batch failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void store(List<PendingCreate> batch) {
+        batchSizes.record(batch.size());
+        List<Book> books = new ArrayList<>(batch.size());
+        for (PendingCreate pending : batch)
+            books.add(pending.book);
+
+        List<BatchItemResult> results;
+        try {
+            long start = System.nanoTime();
+            results = bookService.saveAll(books);
+            commitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } catch (BusinessException e) {
+            // Another writer took one of these isbns between the check and the commit: the batch rolled back
+            storeOneByOne(batch);
+            return;
+        } catch (RuntimeException e) {
+            log.error("Could not store a write-behind batch of {} books", batch.size(), e);
+            for (PendingCreate pending : batch)
+                publish(pending, CreateStatus.failed(pending.book, STORE_FAILED));
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            BatchItemResult result = results.get(i);
+            publish(batch.get(i), result.isSuccess()
+                    ? CreateStatus.created(result.getBook())
+                    : CreateStatus.failed(result.getBook(), result.getError()));
+        }
+    }
+
+    private void storeOneByOne(List<PendingCreate> batch) {
+        for (PendingCreate pending : batch) {
+            try {
+                publish(pending, CreateStatus.created(bookService.save(pending.book)));
+            } catch (BusinessException e) {
+                businessErrors.increment(e.getMessage());      // No handler sees it, the status reports it
+                publish(pending, CreateStatus.failed(pending.book, e.getMessage()));
+            } catch (RuntimeException e) {
+                log.error("Could not store a write-behind book", e);
+                publish(pending, CreateStatus.failed(pending.book, STORE_FAILED));
+            }
+        }
+    }
+
+    private void publish(PendingCreate pending, CreateStatus status) {
+        statuses.put(pending.trackingId, status);
+        (status.getState() == CreateStatus.State.CREATED ? created : failed).increment();
+    }
+
+    private static final class PendingCreate {
+        final String trackingId;
+        final Book book;
+
+        PendingCreate(String trackingId, Book book) {
+            this.trackingId = trackingId;
+            this.book = book;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package br.com.study.libraryapi.async;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AsyncRequestExecutorTest {
+
+    AsyncRequestExecutor executor = new AsyncRequestExecutor(1, 1, Duration.ofSeconds(5), false);
+
+    @AfterEach
+    public void tearDown(){
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Must complete the deferred result with the value of the task")
+    public void submitTest() throws Exception {
+        // Execution
+        DeferredResult<String> result = executor.submit(() -> "done");
+
+        // Verification
+        waitUntilSet(result);
+        assertThat(result.getResult()).isEqualTo("done");
+    }
+
+    @Test
+    @DisplayName("Must complete the deferred result with the exception of the task")
+    public void submitFailingTaskTest() throws Exception {
+        // Execution
+        DeferredResult<String> result = executor.submit(() -> { throw new IllegalStateException("failed"); });
+
+        // Verification
+        waitUntilSet(result);
+        assertThat(result.getResult()).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("Must reject new tasks when the workers and the queue are full")
+    public void rejectWhenFullTest() throws Exception {
+        // Scenario
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        executor.submit(() -> {
+            started.countDown();
+            await(release);
+            return "running";
+        });
+        started.await(5, TimeUnit.SECONDS);
+        executor.submit(() -> "queued");
+
+        // Execution
+        Throwable exception = Assertions.catchThrowable(() -> executor.submit(() -> "rejected"));
+
+        // Verification
+        assertThat(exception).isInstanceOf(RejectedExecutionException.class);
+        assertThat(executor.getQueueSize()).isEqualTo(1);
+        release.countDown();
+    }
+
+    private static void waitUntilSet(DeferredResult<?> result) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!result.hasResult() && System.nanoTime() < deadline)
+            Thread.sleep(10);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package br.com.study.libraryapi.benchmark;
+
+import br.com.study.libraryapi.LibraryApiApplication;
+import br.com.study.libraryapi.isbn.Isbns;
+import br.com.study.libraryapi.model.entity.Book;
+import br.com.study.libraryapi.service.BookService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Full MockMvc round trips (JSON, validation, mapping, service, H2) of the book endpoints.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookApiBenchmark {
+
+    ConfigurableApplicationContext context;
+    MockMvc mvc;
+    String existingBookUri;
+    AtomicLong isbnSequence = new AtomicLong();
+
+    @Setup
+    public void setUp(){
+        context = new SpringApplicationBuilder(LibraryApiApplication.class)
+                .properties("server.port=0", "spring.main.banner-mode=off", "logging.level.root=WARN")
+                .run();
+        mvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+        Long id = context.getBean(BookService.class)
+                .save(Book.builder().title("The Hobbit").author("J.R.R. Tolkien").isbn("bench-existing").build())
+                .getId();
+        existingBookUri = "/api/books/" + id;
+    }
+
+    @TearDown
+    public void tearDown(){
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult getBook() throws Exception {
+        return mvc.perform(MockMvcRequestBuilders.get(existingBookUri).accept(MediaType.APPLICATION_JSON)).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult createBook() throws Exception {
+        String json = "{\"title\":\"Benchmark book\",\"author\":\"Benchmark author\",\"isbn\":\""
+                + Isbns.isbn13(isbnSequence.incrementAndGet()) + "\"}";
+        return mvc.perform(MockMvcRequestBuilders.post("/api/books")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(json)).andReturn();
+    }
+}
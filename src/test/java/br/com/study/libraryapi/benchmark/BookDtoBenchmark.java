@@ -0,0 +1,62 @@
+package br.com.study.libraryapi.benchmark;
+
+import br.com.study.libraryapi.dto.BookDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.*;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request body handling of POST /api/books: JSON deserialization and bean validation of BookDTO.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookDtoBenchmark {
+
+    private static final String JSON = "{\"title\":\"The Lord of the Rings\",\"author\":\"J.R.R. Tolkien\",\"isbn\":\"9780261103252\"}";
+
+    ObjectReader reader;
+    ValidatorFactory validatorFactory;
+    Validator validator;
+    BookDTO validDto;
+    BookDTO invalidDto;
+
+    @Setup
+    public void setUp(){
+        reader = new ObjectMapper().readerFor(BookDTO.class);
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        validDto = BookDTO.builder().title("The Lord of the Rings").author("J.R.R. Tolkien").isbn("9780261103252").build();
+        invalidDto = new BookDTO();
+    }
+
+    @TearDown
+    public void tearDown(){
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public BookDTO deserialize() throws Exception {
+        return reader.readValue(JSON);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<BookDTO>> validateValid(){
+        return validator.validate(validDto);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<BookDTO>> validateInvalid(){
+        return validator.validate(invalidDto);
+    }
+}
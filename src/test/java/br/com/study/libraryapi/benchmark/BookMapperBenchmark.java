@@ -0,0 +1,54 @@
+package br.com.study.libraryapi.benchmark;
+
+import br.com.study.libraryapi.dto.BookDTO;
+import br.com.study.libraryapi.mapper.BookMapper;
+import br.com.study.libraryapi.model.entity.Book;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the reflective ModelMapper with the hand-written BookMapper.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookMapperBenchmark {
+
+    ModelMapper modelMapper;
+    BookMapper bookMapper;
+    Book book;
+    BookDTO dto;
+
+    @Setup
+    public void setUp(){
+        modelMapper = new ModelMapper();
+        bookMapper = new BookMapper();
+        book = Book.builder().id(1L).title("The Lord of the Rings").author("J.R.R. Tolkien").isbn("9780261103252").build();
+        dto = BookDTO.builder().title("The Lord of the Rings").author("J.R.R. Tolkien").isbn("9780261103252").build();
+    }
+
+    @Benchmark
+    public BookDTO modelMapperToDto(){
+        return modelMapper.map(book, BookDTO.class);
+    }
+
+    @Benchmark
+    public BookDTO bookMapperToDto(){
+        return bookMapper.toDto(book);
+    }
+
+    @Benchmark
+    public Book modelMapperToEntity(){
+        return modelMapper.map(dto, Book.class);
+    }
+
+    @Benchmark
+    public Book bookMapperToEntity(){
+        return bookMapper.toEntity(dto);
+    }
+}
@@ -0,0 +1,77 @@
+package br.com.study.libraryapi.benchmark;
+
+import br.com.study.libraryapi.LibraryApiApplication;
+import br.com.study.libraryapi.dto.BookDTO;
+import br.com.study.libraryapi.mapper.BookMapper;
+import br.com.study.libraryapi.model.entity.Book;
+import br.com.study.libraryapi.repository.BookRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A cache miss of GET /api/books/{id} below the cache: the former entity path (a managed Book loaded
+ * by findById, then copied into a BookDTO) against the projection path (findDtoById, no entity).
+ *
+ * The benchmark profile runs JMH with the gc profiler: compare the gc.alloc.rate.norm lines (bytes
+ * allocated per lookup) as well as the times.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookReadPathBenchmark {
+
+    ConfigurableApplicationContext context;
+    BookRepository bookRepository;
+    BookMapper bookMapper;
+    TransactionTemplate readWrite;
+    TransactionTemplate readOnly;
+    Long existingId;
+
+    @Setup
+    public void setUp(){
+        context = new SpringApplicationBuilder(LibraryApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.main.banner-mode=off", "logging.level.root=WARN")
+                .run();
+        bookRepository = context.getBean(BookRepository.class);
+        bookMapper = context.getBean(BookMapper.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        existingId = bookRepository.save(Book.builder().title("The Hobbit").author("J.R.R. Tolkien").isbn("bench-read-path").build()).getId();
+    }
+
+    @TearDown
+    public void tearDown(){
+        context.close();
+    }
+
+    /** Entity load plus mapping inside a read-write transaction: snapshot taken and dirty-checked at commit. */
+    @Benchmark
+    public Optional<BookDTO> entityReadWrite(){
+        return readWrite.execute(status -> bookRepository.findById(existingId).map(bookMapper::toDto));
+    }
+
+    /** The path getById took before: findById in its own read-only transaction, then the mapper. */
+    @Benchmark
+    public Optional<BookDTO> entityReadOnly(){
+        return bookRepository.findById(existingId).map(bookMapper::toDto);
+    }
+
+    /** The path getById takes now. */
+    @Benchmark
+    public Optional<BookDTO> projection(){
+        return bookRepository.findDtoById(existingId);
+    }
+}
@@ -0,0 +1,74 @@
+package br.com.study.libraryapi.benchmark;
+
+import br.com.study.libraryapi.model.entity.Book;
+import br.com.study.libraryapi.search.BookSearchHits;
+import br.com.study.libraryapi.search.BookSearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search latency over a catalog of one million generated books.
+ *
+ * Titles and authors are drawn from fixed vocabularies with a skewed (roughly Zipfian) distribution, so
+ * common words match hundreds of thousands of books and rare ones a handful. Run in sample mode: the
+ * p0.99 line of each benchmark is the number to hold under 10 ms.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BookSearchBenchmark {
+
+    private static final int BOOKS = 1_000_000;
+    private static final String[] TITLE_WORDS = {
+            "the", "of", "and", "love", "war", "history", "life", "god", "world", "house", "night", "city",
+            "secret", "king", "garden", "river", "letters", "memory", "science", "journey", "shadow", "empire",
+            "winter", "stone", "music", "ocean", "kingdom", "silence", "mountain", "fire", "children", "theory",
+            "hobbit", "silmarillion", "christianity", "screwtape", "dune", "foundation", "odyssey", "inferno"
+    };
+    private static final String[] AUTHOR_WORDS = {
+            "john", "mary", "smith", "lewis", "tolkien", "chan", "washer", "garcia", "silva", "santos",
+            "austen", "orwell", "herbert", "asimov", "homer", "dante", "tolstoy", "woolf", "borges", "verissimo"
+    };
+
+    @Param({"the", "love war", "tolkien hobbit", "silmarillion", "inferno dante verissimo"})
+    String query;
+
+    BookSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        index = new BookSearchIndex(new SimpleMeterRegistry());
+        Random random = new Random(42);
+        for (long id = 1; id <= BOOKS; id++) {
+            StringBuilder title = new StringBuilder();
+            int words = 2 + random.nextInt(5);
+            for (int w = 0; w < words; w++)
+                title.append(pick(TITLE_WORDS, random)).append(' ');
+            title.append("vol").append(id % 997);        // A long tail of rare words
+            String author = pick(AUTHOR_WORDS, random) + " " + pick(AUTHOR_WORDS, random);
+            index.add(Book.builder().id(id).title(title.toString()).author(author).isbn(Long.toString(id)).build());
+        }
+    }
+
+    @Benchmark
+    public BookSearchHits firstPage(){
+        return index.search(query, 0, 20);
+    }
+
+    @Benchmark
+    public BookSearchHits deepestPage(){
+        return index.search(query, 980, 20);
+    }
+
+    /** Skews towards the start of the array, so low-index words are far more frequent. */
+    private static String pick(String[] words, Random random){
+        double u = random.nextDouble();
+        return words[(int) (words.length * u * u * u)];
+    }
+}
@@ -0,0 +1,69 @@
+package br.com.study.libraryapi.benchmark;
+
+import br.com.study.libraryapi.LibraryApiApplication;
+import br.com.study.libraryapi.cache.BookCache;
+import br.com.study.libraryapi.dto.BookDTO;
+import br.com.study.libraryapi.model.entity.Book;
+import br.com.study.libraryapi.service.BookService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * BookService against the in-memory H2 database of the application, without the web layer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookServiceBenchmark {
+
+    ConfigurableApplicationContext context;
+    BookService bookService;
+    BookCache bookCache;
+    Long existingId;
+    AtomicLong isbnSequence = new AtomicLong();
+
+    @Setup
+    public void setUp(){
+        context = new SpringApplicationBuilder(LibraryApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.main.banner-mode=off", "logging.level.root=WARN")
+                .run();
+        bookService = context.getBean(BookService.class);
+        bookCache = context.getBean(BookCache.class);
+        existingId = bookService.save(Book.builder().title("The Hobbit").author("J.R.R. Tolkien").isbn("bench-existing").build()).getId();
+    }
+
+    @TearDown
+    public void tearDown(){
+        context.close();
+    }
+
+    @Benchmark
+    public Book save(){
+        return bookService.save(Book.builder()
+                .title("Benchmark book")
+                .author("Benchmark author")
+                .isbn("bench-" + isbnSequence.incrementAndGet())
+                .build());
+    }
+
+    @Benchmark
+    public Optional<BookDTO> getByIdCached(){
+        return bookService.getById(existingId);
+    }
+
+    @Benchmark
+    public Optional<BookDTO> getByIdUncached(){
+        bookCache.evict(existingId);
+        return bookService.getById(existingId);
+    }
+}
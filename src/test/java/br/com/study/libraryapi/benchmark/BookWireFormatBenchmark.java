@@ -0,0 +1,78 @@
+package br.com.study.libraryapi.benchmark;
+
+import br.com.study.libraryapi.dto.BookDTO;
+import br.com.study.libraryapi.dto.BookPageDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON against CBOR for the bodies of GET /api/books/{id}, POST /api/books and a 100-book GET /api/books page.
+ * Payload sizes are printed once per fork; with the benchmark profile's gc profiler the
+ * {@code gc.alloc.rate.norm} lines give the bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookWireFormatBenchmark {
+
+    @Param({"json", "cbor"})
+    String format;
+
+    ObjectWriter bookWriter;
+    ObjectReader bookReader;
+    ObjectWriter pageWriter;
+    ObjectReader pageReader;
+    BookDTO book;
+    BookPageDTO page;
+    byte[] bookBytes;
+    byte[] pageBytes;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper mapper = format.equals("cbor") ? new ObjectMapper(new CBORFactory()) : new ObjectMapper();
+        bookWriter = mapper.writerFor(BookDTO.class);
+        bookReader = mapper.readerFor(BookDTO.class);
+        pageWriter = mapper.writerFor(BookPageDTO.class);
+        pageReader = mapper.readerFor(BookPageDTO.class);
+
+        book = BookDTO.builder().id(123_456L).title("The Lord of the Rings").author("J.R.R. Tolkien").isbn("9780261103252").build();
+        List<BookDTO> content = new ArrayList<>(100);
+        for (long id = 1; id <= 100; id++)
+            content.add(BookDTO.builder().id(id).title("Title " + id).author("Author " + (id % 10)).isbn(Long.toString(9780000000000L + id)).build());
+        page = new BookPageDTO(content, 100L);
+
+        bookBytes = bookWriter.writeValueAsBytes(book);
+        pageBytes = pageWriter.writeValueAsBytes(page);
+        System.out.printf("%n%s payload: book %d bytes, page of 100 %d bytes%n", format, bookBytes.length, pageBytes.length);
+    }
+
+    @Benchmark
+    public byte[] writeBook() throws Exception {
+        return bookWriter.writeValueAsBytes(book);
+    }
+
+    @Benchmark
+    public BookDTO readBook() throws Exception {
+        return bookReader.readValue(bookBytes);
+    }
+
+    @Benchmark
+    public byte[] writePage() throws Exception {
+        return pageWriter.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public BookPageDTO readPage() throws Exception {
+        return pageReader.readValue(pageBytes);
+    }
+}
@@ -0,0 +1,83 @@
+package br.com.study.libraryapi.benchmark;
+
+import br.com.study.libraryapi.dto.BookDTO;
+import br.com.study.libraryapi.dto.BookPageDTO;
+import br.com.study.libraryapi.export.BookExportWriter;
+import br.com.study.libraryapi.export.ExportFormat;
+import br.com.study.libraryapi.model.entity.Book;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * CPU cost of library.compression.level for a 100-book GET /api/books page and a 10,000-book NDJSON export,
+ * compressed the way CompressionFilter does it (deflate, 8 KB buffer). The compressed sizes are printed once
+ * per fork; level 0 is the uncompressed copy for reference. gzip adds a fixed 18-byte frame to these numbers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompressionLevelBenchmark {
+
+    @Param({"0", "1", "6", "9"})
+    int level;
+
+    byte[] page;
+    byte[] export;
+    ByteArrayOutputStream sink;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<BookDTO> content = new ArrayList<>(100);
+        for (long id = 1; id <= 100; id++)
+            content.add(BookDTO.builder().id(id).title("Title " + id).author("Author " + (id % 10)).isbn(Long.toString(9780000000000L + id)).build());
+        page = new ObjectMapper().writeValueAsBytes(new BookPageDTO(content, 100L));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (BookExportWriter writer = BookExportWriter.of(ExportFormat.NDJSON, out)) {
+            for (long id = 1; id <= 10_000; id++)
+                writer.write(Book.builder().id(id).title("Title " + id).author("Author " + (id % 100)).isbn(Long.toString(9780000000000L + id)).build());
+        }
+        export = out.toByteArray();
+
+        sink = new ByteArrayOutputStream(export.length + 1024);
+        System.out.printf("%nlevel %d: page %d -> %d bytes, export %d -> %d bytes%n", level,
+                page.length, compressPage(), export.length, compressExport());
+    }
+
+    @Benchmark
+    public int compressPage() throws IOException {
+        return compress(page);
+    }
+
+    @Benchmark
+    public int compressExport() throws IOException {
+        return compress(export);
+    }
+
+    private int compress(byte[] body) throws IOException {
+        sink.reset();
+        if (level == 0) {
+            sink.write(body);
+            return sink.size();
+        }
+        Deflater deflater = new Deflater(level);
+        try (OutputStream out = new DeflaterOutputStream(sink, deflater, 8 * 1024, true)) {
+            out.write(body);
+        } finally {
+            deflater.end();
+        }
+        return sink.size();
+    }
+}
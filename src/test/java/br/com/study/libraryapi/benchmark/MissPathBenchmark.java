@@ -0,0 +1,109 @@
+package br.com.study.libraryapi.benchmark;
+
+import br.com.study.libraryapi.LibraryApiApplication;
+import br.com.study.libraryapi.exception.ApiErrors;
+import br.com.study.libraryapi.exception.BusinessException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Miss-heavy traffic: lookups of ids that don't exist.
+ *
+ * legacy* reproduces the old path, where every miss threw a new exception with a full stack trace
+ * (from as deep as a Spring MVC call stack) and built its error payload with Arrays.asList;
+ * current* is the path now taken: an empty Optional answered with a plain 404, and stackless,
+ * preallocated BusinessExceptions for the errors that remain.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MissPathBenchmark {
+
+    /** Roughly the depth of a controller call below Tomcat, filters and the DispatcherServlet. */
+    private static final int STACK_DEPTH = 120;
+    private static final BusinessException PREALLOCATED = new BusinessException("Book not found!");
+
+    ConfigurableApplicationContext context;
+    MockMvc mvc;
+    AtomicLong missingId = new AtomicLong(1_000_000_000L);
+
+    @Setup
+    public void setUp(){
+        context = new SpringApplicationBuilder(LibraryApiApplication.class)
+                .properties("server.port=0", "spring.main.banner-mode=off", "logging.level.root=WARN")
+                .run();
+        mvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+    }
+
+    @TearDown
+    public void tearDown(){
+        context.close();
+    }
+
+    @Benchmark
+    public List<String> legacyExceptionMiss(){
+        try {
+            throwAtDepth(STACK_DEPTH, () -> new LegacyBusinessException("Book not found!"));
+            return null;
+        } catch (LegacyBusinessException e) {
+            return Arrays.asList(e.getMessage());
+        }
+    }
+
+    @Benchmark
+    public ApiErrors currentExceptionMiss(){
+        try {
+            throwAtDepth(STACK_DEPTH, () -> PREALLOCATED);
+            return null;
+        } catch (BusinessException e) {
+            return e.getApiErrors();
+        }
+    }
+
+    @Benchmark
+    public ApiErrors currentNewExceptionMiss(){
+        try {
+            throwAtDepth(STACK_DEPTH, () -> new BusinessException("Book not found!"));
+            return null;
+        } catch (BusinessException e) {
+            return e.getApiErrors();
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public MvcResult currentHttpMiss() throws Exception {
+        // A new id each time so the negative cache doesn't hide the database lookup
+        return mvc.perform(MockMvcRequestBuilders.get("/api/books/" + missingId.incrementAndGet())
+                .accept(MediaType.APPLICATION_JSON)).andReturn();
+    }
+
+    private static void throwAtDepth(int depth, Supplier<RuntimeException> exception) {
+        if (depth == 0)
+            throw exception.get();
+        throwAtDepth(depth - 1, exception);
+    }
+
+    /** BusinessException as it was: a plain RuntimeException that fills in its stack trace. */
+    private static class LegacyBusinessException extends RuntimeException {
+        LegacyBusinessException(String message) {
+            super(message);
+        }
+    }
+}
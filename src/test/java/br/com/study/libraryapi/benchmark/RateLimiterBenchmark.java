@@ -0,0 +1,54 @@
+package br.com.study.libraryapi.benchmark;
+
+import br.com.study.libraryapi.ratelimit.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of the rate limiter with 16 threads at once: every thread on the same client
+ * (all CASes on one bucket), and every thread on its own clients (bucket lookups spread over the map).
+ * Limits are high enough that requests are allowed, the common case.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(16)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    RateLimiter rateLimiter;
+
+    @Setup
+    public void setUp(){
+        RateLimiter.Limit unlimited = new RateLimiter.Limit(1e9, 1_000_000);
+        rateLimiter = new RateLimiter(unlimited, unlimited, 100_000, Duration.ofMinutes(10), new SimpleMeterRegistry());
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        String[] keys = new String[1024];
+        int next;
+
+        @Setup
+        public void setUp(){
+            String thread = Long.toString(Thread.currentThread().getId());
+            for (int i = 0; i < keys.length; i++)
+                keys[i] = "ip:10.0." + thread + "." + i;
+        }
+    }
+
+    @Benchmark
+    public long sameClient(){
+        return rateLimiter.tryAcquire("ip:10.0.0.1", RateLimiter.Kind.READ);
+    }
+
+    @Benchmark
+    public long manyClients(Client client){
+        return rateLimiter.tryAcquire(client.keys[client.next++ & 1023], RateLimiter.Kind.READ);
+    }
+}
@@ -0,0 +1,66 @@
+package br.com.study.libraryapi.catalog;
+
+import br.com.study.libraryapi.isbn.Isbns;
+import br.com.study.libraryapi.model.entity.Book;
+import br.com.study.libraryapi.repository.BookRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest(properties = {"library.catalog.generator.enabled=true", "library.catalog.generator.books=2500",
+        "library.catalog.generator.seed=7"})
+@Import(CatalogGenerator.class)
+public class CatalogGeneratorTest {
+
+    @Autowired
+    CatalogGenerator generator;
+    @Autowired
+    BookRepository bookRepository;
+
+    @Test
+    @DisplayName("Must fill an empty book table at startup, and only once")
+    public void generateTest(){
+        // Scenario: the generator already ran at startup
+
+        // Execution
+        generator.run(null);
+
+        // Verification
+        assertThat(bookRepository.count()).isEqualTo(2500);
+        assertThat(bookRepository.existsByIsbn(CatalogGenerator.isbn(0, 7))).isTrue();
+        assertThat(bookRepository.existsByIsbn(CatalogGenerator.isbn(2499, 7))).isTrue();
+        assertThat(bookRepository.existsByIsbn(CatalogGenerator.isbn(2500, 7))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Must generate the same books for the same seed, with distinct valid isbns")
+    public void deterministicTest(){
+        // Execution
+        Book book = CatalogGenerator.book(12_345, 42);
+
+        // Verification
+        assertThat(CatalogGenerator.book(12_345, 42)).isEqualTo(book);
+        assertThat(CatalogGenerator.book(12_345, 43).getIsbn()).isNotEqualTo(book.getIsbn());
+        assertThat(book.getTitle()).isNotBlank();
+        assertThat(book.getAuthor()).contains(" ");
+        Set<String> isbns = new HashSet<>();
+        for (long index = 0; index < 200_000; index++) {
+            String isbn = CatalogGenerator.isbn(index, 42);
+            assertThat(isbns.add(isbn)).isTrue();
+            assertThat(Isbns.canonical(isbn)).isSameAs(isbn);       // Stored as creates would store it
+            assertThat(Long.parseLong(isbn.substring(3, 12))).isLessThan(CatalogGenerator.GENERATED_SERIALS);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package br.com.study.libraryapi.changes;
+
+import br.com.study.libraryapi.dto.BookChangeDTO;
+import br.com.study.libraryapi.model.entity.Book;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@Import(BookChangeLog.class)
+public class BookChangeLogTest {
+
+    @Autowired
+    TestEntityManager entityManager;
+    @Autowired
+    BookChangeLog changeLog;
+
+    @Test
+    @DisplayName("Must record the state of each written book under consecutive cursors")
+    public void recordTest(){
+        // Scenario
+        Book hobbit = entityManager.persist(Book.builder().title("The Hobbit").author("J.R.R. Tolkien").isbn("0001").build());
+        Book silmarillion = entityManager.persist(Book.builder().title("The Silmarillion").author("J.R.R. Tolkien").isbn("0002").build());
+        entityManager.flush();
+
+        // Execution
+        changeLog.record(Arrays.asList(hobbit, silmarillion));
+        changeLog.record(Collections.singletonList(hobbit));
+        List<BookChangeDTO> changes = changeLog.changesAfter(0, 10);
+
+        // Verification
+        assertThat(changes).extracting(BookChangeDTO::getCursor).containsExactly(1L, 2L, 3L);
+        assertThat(changes).extracting(BookChangeDTO::getId).containsExactly(hobbit.getId(), silmarillion.getId(), hobbit.getId());
+        assertThat(changes.get(1).getTitle()).isEqualTo("The Silmarillion");
+        assertThat(changes.get(0).getCreatedAt()).isNotNull();
+        assertThat(changes.get(0).getUpdatedAt()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Must return only the changes after the cursor, oldest first and up to the limit")
+    public void changesAfterTest(){
+        // Scenario
+        for (int i = 0; i < 5; i++) {
+            Book book = entityManager.persist(Book.builder().title("Title " + i).author("Author").isbn("00" + i).build());
+            entityManager.flush();
+            changeLog.record(Collections.singletonList(book));
+        }
+
+        // Execution
+        List<BookChangeDTO> changes = changeLog.changesAfter(2, 2);
+
+        // Verification
+        assertThat(changes).extracting(BookChangeDTO::getCursor).containsExactly(3L, 4L);
+        assertThat(changeLog.changesAfter(5, 10)).isEmpty();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Must refuse to record changes outside the transaction of the write")
+    public void recordOutsideTransactionTest(){
+        Book book = Book.builder().id(1L).title("The Hobbit").author("J.R.R. Tolkien").isbn("0001").build();
+
+        assertThatThrownBy( () -> changeLog.record(Collections.singletonList(book)))
+                .isInstanceOf(IllegalTransactionStateException.class);
+    }
+}
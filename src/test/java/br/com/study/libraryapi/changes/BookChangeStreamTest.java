@@ -0,0 +1,80 @@
+package br.com.study.libraryapi.changes;
+
+import br.com.study.libraryapi.dto.BookChangeDTO;
+import br.com.study.libraryapi.service.BookService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BookChangeStreamTest {
+
+    private final BookService bookService = Mockito.mock(BookService.class);
+    // Polled by hand: the scheduled poll is too far away to interfere
+    private final BookChangeStream stream = new BookChangeStream(bookService, Duration.ofHours(1), 2, 2,
+            Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+    @AfterEach
+    public void tearDown(){
+        stream.shutdown();
+    }
+
+    @Test
+    @DisplayName("Must move each subscriber's cursor past the changes it was sent")
+    public void cursorTest(){
+        // Scenario
+        Mockito.when(bookService.getChanges(Mockito.anyLong(), Mockito.anyInt())).thenReturn(Collections.emptyList());
+        Mockito.when(bookService.getChanges(10L, 2)).thenReturn(Collections.singletonList(change(11L)));
+        stream.subscribe(10);
+
+        // Execution
+        stream.poll();
+        stream.poll();
+
+        // Verification
+        Mockito.verify(bookService).getChanges(10L, 2);
+        Mockito.verify(bookService).getChanges(11L, 2);
+    }
+
+    @Test
+    @DisplayName("Must share one query among subscribers at the same cursor and keep reading full batches")
+    public void sharedQueryTest(){
+        // Scenario
+        Mockito.when(bookService.getChanges(0L, 2)).thenReturn(Arrays.asList(change(1L), change(2L)));
+        Mockito.when(bookService.getChanges(2L, 2)).thenReturn(Collections.singletonList(change(3L)));
+        stream.subscribe(0);
+        stream.subscribe(0);
+
+        // Execution
+        stream.poll();
+
+        // Verification
+        Mockito.verify(bookService, Mockito.times(1)).getChanges(0L, 2);
+        Mockito.verify(bookService, Mockito.times(1)).getChanges(2L, 2);
+        Mockito.verifyNoMoreInteractions(bookService);
+    }
+
+    @Test
+    @DisplayName("Must refuse streams beyond the subscriber limit")
+    public void subscriberLimitTest(){
+        // Scenario
+        stream.subscribe(0);
+        stream.subscribe(0);
+
+        // Verification
+        assertThat(stream.getSubscriberCount()).isEqualTo(2);
+        assertThatThrownBy( () -> stream.subscribe(0)).isInstanceOf(RejectedExecutionException.class);
+    }
+
+    private static BookChangeDTO change(long cursor){
+        return BookChangeDTO.builder().cursor(cursor).id(cursor).title("The Hobbit").author("J.R.R. Tolkien").isbn("0001").build();
+    }
+}
@@ -0,0 +1,113 @@
+package br.com.study.libraryapi.controller;
+
+import br.com.study.libraryapi.changes.BookChangeStream;
+import br.com.study.libraryapi.dto.BookDTO;
+import br.com.study.libraryapi.exception.BusinessException;
+import br.com.study.libraryapi.model.entity.Book;
+import br.com.study.libraryapi.service.BookService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.Optional;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@WebMvcTest(properties = "library.async.enabled=true")
+@AutoConfigureMockMvc
+public class BookControllerAsyncTest {
+
+    public static String BOOK_API = "/api/books";
+
+    @Autowired
+    MockMvc mvc;
+    @MockBean
+    BookService service;
+    @MockBean
+    BookChangeStream changeStream;
+
+    @Test
+    @DisplayName("Must return the book's informations from the async executor")
+    public void getBookDetailsAsyncTest() throws Exception {
+        // Scenario
+        BookDTO book = BookDTO.builder().id(1L).author("J.R.R. Tolkien").title("The Lord of the Rings").isbn("0001").build();
+        BDDMockito.given(service.getById(1L)).willReturn(Optional.of(book));
+
+        // Execution
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/1")).accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Verification
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("id").value(1))
+                .andExpect(jsonPath("title").value(book.getTitle()));
+    }
+
+    @Test
+    @DisplayName("Must create a book on the async executor")
+    public void createBookAsyncTest() throws Exception {
+        // Scenario
+        BookDTO dto = BookDTO.builder().author("Francis Chan").title("Crazy Love").isbn("9780306406157").build();
+        Book savedBook = Book.builder().id(10L).author("Francis Chan").title("Crazy Love").isbn("9780306406157").build();
+        BDDMockito.given(service.save(Mockito.any(Book.class))).willReturn(savedBook);
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(BOOK_API)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(new ObjectMapper().writeValueAsString(dto));
+
+        // Execution
+        MvcResult result = mvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Verification
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("id").value(10));
+    }
+
+    @Test
+    @DisplayName("Must report business errors raised on the async executor")
+    public void createBookWithDuplicatedIsbnAsyncTest() throws Exception {
+        // Scenario
+        BookDTO dto = BookDTO.builder().author("Francis Chan").title("Crazy Love").isbn("9780306406157").build();
+        BDDMockito.given(service.save(Mockito.any(Book.class))).willThrow(new BusinessException("Isbn already exists!"));
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(BOOK_API)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(new ObjectMapper().writeValueAsString(dto));
+
+        // Execution
+        MvcResult result = mvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Verification
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors[0]").value("Isbn already exists!"));
+    }
+}
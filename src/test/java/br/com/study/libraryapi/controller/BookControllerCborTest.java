@@ -0,0 +1,146 @@
+package br.com.study.libraryapi.controller;
+
+import br.com.study.libraryapi.changes.BookChangeStream;
+import br.com.study.libraryapi.dto.BookDTO;
+import br.com.study.libraryapi.dto.BookPageDTO;
+import br.com.study.libraryapi.model.entity.Book;
+import br.com.study.libraryapi.repository.BookFilter;
+import br.com.study.libraryapi.service.BookService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@WebMvcTest
+@AutoConfigureMockMvc
+public class BookControllerCborTest {
+
+    public static String BOOK_API = "/api/books";
+    private static final MediaType CBOR = MediaType.valueOf("application/cbor");
+
+    @Autowired
+    MockMvc mvc;
+    @MockBean
+    BookService service;
+    @MockBean
+    BookChangeStream changeStream;
+
+    private final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+
+    @Test
+    @DisplayName("Must return the book as CBOR when the client accepts it")
+    public void getBookCborTest() throws Exception {
+        // Scenario
+        BookDTO book = BookDTO.builder().id(1L).author("J.R.R. Tolkien").title("The Lord of the Rings").isbn("0001").version(3L).build();
+        BDDMockito.given(service.getById(1L)).willReturn(Optional.of(book));
+
+        // Execution
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/1")).accept(CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(CBOR))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"1-3\""))
+                .andReturn();
+
+        // Verification
+        BookDTO returned = cborMapper.readValue(result.getResponse().getContentAsByteArray(), BookDTO.class);
+        assertThat(returned.getId()).isEqualTo(1L);
+        assertThat(returned.getTitle()).isEqualTo(book.getTitle());
+        assertThat(returned.getVersion()).isNull();         // Not part of the body, whatever the format
+    }
+
+    @Test
+    @DisplayName("Must keep JSON as the default format")
+    public void defaultJsonTest() throws Exception {
+        // Scenario
+        BookDTO book = BookDTO.builder().id(1L).author("J.R.R. Tolkien").title("The Lord of the Rings").isbn("0001").build();
+        BDDMockito.given(service.getById(1L)).willReturn(Optional.of(book));
+
+        // Execution and Verification
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/1")).accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("title").value(book.getTitle()));
+    }
+
+    @Test
+    @DisplayName("Must create a book sent as CBOR")
+    public void createBookCborTest() throws Exception {
+        // Scenario
+        BookDTO dto = BookDTO.builder().author("Francis Chan").title("Crazy Love").isbn("9780306406157").build();
+        BDDMockito.given(service.save(Mockito.any(Book.class)))
+                .willReturn(Book.builder().id(10L).author("Francis Chan").title("Crazy Love").isbn("9780306406157").build());
+
+        // Execution
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.post(BOOK_API)
+                        .contentType(CBOR)
+                        .accept(CBOR)
+                        .content(cborMapper.writeValueAsBytes(dto)))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(CBOR))
+                .andReturn();
+
+        // Verification
+        BookDTO returned = cborMapper.readValue(result.getResponse().getContentAsByteArray(), BookDTO.class);
+        assertThat(returned.getId()).isEqualTo(10L);
+        Mockito.verify(service).save(Mockito.argThat( book -> book.getIsbn().equals("9780306406157")));
+    }
+
+    @Test
+    @DisplayName("Must validate CBOR bodies like JSON ones")
+    public void createInvalidBookCborTest() throws Exception {
+        // Execution and Verification
+        mvc.perform(MockMvcRequestBuilders.post(BOOK_API)
+                        .contentType(CBOR)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(cborMapper.writeValueAsBytes(new BookDTO())))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors").isArray());
+    }
+
+    @Test
+    @DisplayName("Must list books as CBOR")
+    public void listBooksCborTest() throws Exception {
+        // Scenario
+        Book first = Book.builder().id(11L).author("J.R.R. Tolkien").title("The Hobbit").isbn("0001").build();
+        Book second = Book.builder().id(12L).author("J.R.R. Tolkien").title("The Silmarillion").isbn("0002").build();
+        BDDMockito.given(service.find(Mockito.any(BookFilter.class), Mockito.isNull(), Mockito.eq(2)))
+                .willReturn(Arrays.asList(first, second));
+
+        // Execution
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get(BOOK_API).param("size", "2").accept(CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(CBOR))
+                .andReturn();
+
+        // Verification
+        BookPageDTO page = cborMapper.readValue(result.getResponse().getContentAsByteArray(), BookPageDTO.class);
+        assertThat(page.getContent()).extracting(BookDTO::getId).containsExactly(11L, 12L);
+        assertThat(page.getNextCursor()).isEqualTo(12L);
+    }
+}
@@ -0,0 +1,141 @@
+package br.com.study.libraryapi.controller;
+
+import br.com.study.libraryapi.changes.BookChangeStream;
+import br.com.study.libraryapi.dto.BookDTO;
+import br.com.study.libraryapi.model.entity.Book;
+import br.com.study.libraryapi.ratelimit.RateLimitInterceptor;
+import br.com.study.libraryapi.service.BookService;
+import br.com.study.libraryapi.writebehind.WriteBehindQueue;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.Optional;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@WebMvcTest(properties = {
+        "library.rate-limit.enabled=true",
+        "library.rate-limit.read.per-second=1", "library.rate-limit.read.burst=3",
+        "library.rate-limit.write.per-second=0.1", "library.rate-limit.write.burst=1",
+        "library.rate-limit.api-keys=client-a,client-b,client-c,client-d,client-e",
+        "library.write-behind.enabled=true"})
+@AutoConfigureMockMvc
+public class BookControllerRateLimitTest {
+
+    public static String BOOK_API = "/api/books";
+
+    @Autowired
+    MockMvc mvc;
+    @MockBean
+    BookService service;
+    @MockBean
+    BookChangeStream changeStream;
+    @MockBean
+    WriteBehindQueue writeBehindQueue;
+
+    @Test
+    @DisplayName("Must answer 429 with Retry-After once a client spent its write burst")
+    public void writeLimitTest() throws Exception {
+        // Scenario
+        BookDTO dto = BookDTO.builder().author("Francis Chan").title("Crazy Love").isbn("9780306406157").build();
+        BDDMockito.given(service.save(Mockito.any(Book.class)))
+                .willReturn(Book.builder().id(10L).author("Francis Chan").title("Crazy Love").isbn("9780306406157").build());
+
+        // Execution
+        mvc.perform(createBook(dto, "client-a")).andExpect(status().isCreated());
+        mvc.perform(createBook(dto, "client-a"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "10"))
+                .andExpect(jsonPath("errors[0]").value("Too many requests, try again later!"));
+
+        // Verification
+        mvc.perform(createBook(dto, "client-b")).andExpect(status().isCreated());      // Other clients keep their own bucket
+        Mockito.verify(service, Mockito.times(2)).save(Mockito.any(Book.class));
+    }
+
+    @Test
+    @DisplayName("Must answer 429 with Retry-After on write-behind creates too")
+    public void writeBehindLimitTest() throws Exception {
+        // Scenario
+        BookDTO dto = BookDTO.builder().author("Francis Chan").title("Crazy Love").isbn("9780306406157").build();
+        BDDMockito.given(writeBehindQueue.submit(Mockito.any(Book.class))).willReturn("tracking-1");
+
+        // Execution
+        mvc.perform(createBook(BOOK_API.concat("/async"), dto, "client-e")).andExpect(status().isAccepted());
+        mvc.perform(createBook(BOOK_API.concat("/async"), dto, "client-e"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "10"))
+                .andExpect(jsonPath("errors[0]").value("Too many requests, try again later!"));
+
+        // Verification
+        Mockito.verify(writeBehindQueue, Mockito.times(1)).submit(Mockito.any(Book.class));
+    }
+
+    @Test
+    @DisplayName("Must limit reads separately from writes")
+    public void readLimitTest() throws Exception {
+        // Scenario
+        BDDMockito.given(service.getById(1L)).willReturn(Optional.empty());
+
+        // Execution
+        for (int i = 0; i < 3; i++)
+            mvc.perform(getBook("client-c")).andExpect(status().isNotFound());
+        mvc.perform(getBook("client-c")).andExpect(status().isTooManyRequests());
+
+        // Verification
+        mvc.perform(getBook("client-d")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Must charge requests with an unknown api key to the client address")
+    public void unknownApiKeyTest() throws Exception {
+        // Scenario
+        BookDTO dto = BookDTO.builder().author("Francis Chan").title("Crazy Love").isbn("9780306406157").build();
+        BDDMockito.given(service.save(Mockito.any(Book.class)))
+                .willReturn(Book.builder().id(10L).author("Francis Chan").title("Crazy Love").isbn("9780306406157").build());
+
+        // Execution
+        mvc.perform(createBook(dto, "made-up-1")).andExpect(status().isCreated());
+        mvc.perform(createBook(dto, "made-up-2")).andExpect(status().isTooManyRequests());     // A new key isn't a new bucket
+
+        // Verification
+        Mockito.verify(service, Mockito.times(1)).save(Mockito.any(Book.class));
+    }
+
+    private static MockHttpServletRequestBuilder createBook(BookDTO dto, String apiKey) throws Exception {
+        return createBook(BOOK_API, dto, apiKey);
+    }
+
+    private static MockHttpServletRequestBuilder createBook(String uri, BookDTO dto, String apiKey) throws Exception {
+        return MockMvcRequestBuilders.post(uri)
+                .header(RateLimitInterceptor.API_KEY_HEADER, apiKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(new ObjectMapper().writeValueAsString(dto));
+    }
+
+    private static MockHttpServletRequestBuilder getBook(String apiKey) {
+        return MockMvcRequestBuilders.get(BOOK_API.concat("/1"))
+                .header(RateLimitInterceptor.API_KEY_HEADER, apiKey)
+                .accept(MediaType.APPLICATION_JSON);
+    }
+}
@@ -1,8 +1,17 @@
 package br.com.study.libraryapi.controller;
 
+import br.com.study.libraryapi.changes.ChangeFeedConfig;
+import br.com.study.libraryapi.dto.BookBatchDTO;
+import br.com.study.libraryapi.dto.BookChangeDTO;
 import br.com.study.libraryapi.dto.BookDTO;
+import br.com.study.libraryapi.dto.BookLookupDTO;
 import br.com.study.libraryapi.exception.BusinessException;
+import br.com.study.libraryapi.mapper.BookMapper;
+import br.com.study.libraryapi.metrics.BusinessErrorCounter;
 import br.com.study.libraryapi.model.entity.Book;
+import br.com.study.libraryapi.repository.BookFilter;
+import br.com.study.libraryapi.service.BatchItemResult;
+import br.com.study.libraryapi.service.BookSearchResult;
 import br.com.study.libraryapi.service.BookService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -16,23 +25,40 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(SpringExtension.class)
 @ActiveProfiles("test")
 @WebMvcTest
+@Import(ChangeFeedConfig.class)
 @AutoConfigureMockMvc
 public class BookControllerTest {
 
@@ -42,6 +68,10 @@ public class BookControllerTest {
     MockMvc mvc;    // Mock the requisitions
     @MockBean
     BookService service;
+    @SpyBean
+    BookMapper bookMapper;
+    @MockBean
+    BusinessErrorCounter businessErrors;
 
     @Test
     @DisplayName("Must create a book successfully")
@@ -50,12 +80,12 @@ public class BookControllerTest {
         BookDTO dto = BookDTO.builder()
                 .author("Francis Chan")
                 .title("Crazy Love")
-                .isbn("001")
+                .isbn("9780306406157")
                 .build();
         Book savedBook = Book.builder().author("Francis Chan")
                 .id(10L)
                 .title("Crazy Love")
-                .isbn("001")
+                .isbn("9780306406157")
                 .build();
 
         BDDMockito.given(service.save(Mockito.any(Book.class))).willReturn(savedBook);
@@ -90,11 +120,29 @@ public class BookControllerTest {
                 .andExpect(jsonPath("errors", Matchers.hasSize(3)));
     }
 
+    @Test
+    @DisplayName("Must not create a book whose isbn has a wrong check digit")
+    public void createBookWithInvalidIsbnTest() throws Exception {
+        BookDTO dto = BookDTO.builder().author("Francis Chan").title("Crazy Love").isbn("978-0-306-40615-8").build();
+        String json = new ObjectMapper().writeValueAsString(dto);
+
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(BOOK_API)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        mvc.perform(request)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors", Matchers.hasSize(1)))
+                .andExpect(jsonPath("errors[0]").value("must be a valid ISBN-10 or ISBN-13"));
+        Mockito.verify(service, Mockito.never()).save(Mockito.any(Book.class));
+    }
+
     @Test
     @DisplayName("Must throw an error due to trying to create a book with an isbn wich already exists")
     public void createBookWithDuplicatedIsbn() throws Exception {
 
-        BookDTO dto = BookDTO.builder().author("Francis Chan").title("Crazy Love").isbn("001").build();
+        BookDTO dto = BookDTO.builder().author("Francis Chan").title("Crazy Love").isbn("9780306406157").build();
         BDDMockito.given(service.save(Mockito.any(Book.class))).willThrow(new BusinessException("Isbn already exists!"));
 
         String json = new ObjectMapper().writeValueAsString(dto);
@@ -114,7 +162,7 @@ public class BookControllerTest {
     public void getBookDetailsTest() throws Exception {
         // Scenario (given)
         Long id = 1L;
-        Book book = Book.builder().id(id).author("J.R.R. Tolkien").title("The Lord of the Rings").isbn("0001").build();
+        BookDTO book = BookDTO.builder().id(id).author("J.R.R. Tolkien").title("The Lord of the Rings").isbn("0001").build();
         BDDMockito.given(service.getById(id)).willReturn(Optional.of(book));
 
         // Execution (when)
@@ -128,6 +176,55 @@ public class BookControllerTest {
                 .andExpect(jsonPath("isbn").value(book.getIsbn()));
     }
 
+    @Test
+    @DisplayName("Must return the book with a strong ETag and caching headers")
+    public void getBookETagTest() throws Exception {
+        // Scenario
+        BookDTO book = BookDTO.builder().id(1L).author("J.R.R. Tolkien").title("The Lord of the Rings").isbn("0001").version(3L).build();
+        BDDMockito.given(service.getById(1L)).willReturn(Optional.of(book));
+
+        // Execution
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/1")).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"1-3\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60, public"));
+    }
+
+    @Test
+    @DisplayName("Must answer 304 without mapping the book when the ETag still matches")
+    public void getBookNotModifiedTest() throws Exception {
+        // Scenario
+        BookDTO book = BookDTO.builder().id(1L).author("J.R.R. Tolkien").title("The Lord of the Rings").isbn("0001").version(3L).build();
+        BDDMockito.given(service.getById(1L)).willReturn(Optional.of(book));
+
+        // Execution
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(BOOK_API.concat("/1"))
+                .header(HttpHeaders.IF_NONE_MATCH, "\"1-2\", W/\"1-3\"")
+                .accept(MediaType.APPLICATION_JSON);
+        mvc.perform(request)
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"1-3\""))
+                .andExpect(content().string(""));
+        Mockito.verify(bookMapper, Mockito.never()).toDto(Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Must return the book again once its version changed")
+    public void getBookChangedTest() throws Exception {
+        // Scenario
+        BookDTO book = BookDTO.builder().id(1L).author("J.R.R. Tolkien").title("The Lord of the Rings").isbn("0001").version(4L).build();
+        BDDMockito.given(service.getById(1L)).willReturn(Optional.of(book));
+
+        // Execution
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(BOOK_API.concat("/1"))
+                .header(HttpHeaders.IF_NONE_MATCH, "\"1-3\"")
+                .accept(MediaType.APPLICATION_JSON);
+        mvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"1-4\""))
+                .andExpect(jsonPath("title").value(book.getTitle()));
+    }
+
     @Test
     @DisplayName("Must fail due to search for nonexistent book")
     public void getNonexistentBook() throws Exception{
@@ -141,4 +238,261 @@ public class BookControllerTest {
         mvc.perform(request)
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    @DisplayName("Must create a batch of books and report the result of each one")
+    public void createBookBatchTest() throws Exception {
+        BookDTO first = BookDTO.builder().author("Francis Chan").title("Crazy Love").isbn("9780306406157").build();
+        BookDTO second = BookDTO.builder().author("Francis Chan").title("Forgotten God").isbn("9780261103252").build();
+        Book savedBook = Book.builder().id(10L).author("Francis Chan").title("Crazy Love").isbn("9780306406157").build();
+        Book rejectedBook = Book.builder().author("Francis Chan").title("Forgotten God").isbn("9780261103252").build();
+
+        BDDMockito.given(service.saveAll(Mockito.anyList()))
+                .willReturn(Arrays.asList(BatchItemResult.saved(savedBook), BatchItemResult.failed(rejectedBook, "Isbn already exists!")));
+
+        String json = new ObjectMapper().writeValueAsString(new BookBatchDTO(Arrays.asList(first, second)));
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(BOOK_API.concat("/batch"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        mvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(2)))
+                .andExpect(jsonPath("[0].success").value(true))
+                .andExpect(jsonPath("[0].book.id").value(10))
+                .andExpect(jsonPath("[1].success").value(false))
+                .andExpect(jsonPath("[1].error").value("Isbn already exists!"));
+    }
+
+    @Test
+    @DisplayName("Must not create an empty batch of books")
+    public void createEmptyBookBatchTest() throws Exception {
+        String json = new ObjectMapper().writeValueAsString(new BookBatchDTO(Collections.emptyList()));
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(BOOK_API.concat("/batch"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(json);
+
+        mvc.perform(request)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors", Matchers.hasSize(1)));
+    }
+
+    @Test
+    @DisplayName("Must reject batches above the configured book limit")
+    public void createTooLargeBookBatchTest() throws Exception {
+        // Scenario
+        List<BookDTO> books = LongStream.rangeClosed(1, 1001)
+                .mapToObj(n -> BookDTO.builder().author("Author " + n).title("Book " + n).isbn("9780306406157").build())
+                .collect(Collectors.toList());
+        String json = new ObjectMapper().writeValueAsString(new BookBatchDTO(books));
+
+        // Execution
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(BOOK_API.concat("/batch"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(json);
+        mvc.perform(request)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors[0]").value("Too many books in the batch, the limit is 1000!"));
+        Mockito.verify(service, Mockito.never()).saveAll(Mockito.anyList());
+    }
+
+    @Test
+    @DisplayName("Must list books with a cursor to the next page")
+    public void listBooksTest() throws Exception {
+        // Scenario
+        Book first = Book.builder().id(11L).author("J.R.R. Tolkien").title("The Hobbit").isbn("0001").build();
+        Book second = Book.builder().id(12L).author("J.R.R. Tolkien").title("The Silmarillion").isbn("0002").build();
+        BDDMockito.given(service.find(Mockito.any(BookFilter.class), Mockito.eq(10L), Mockito.eq(2)))
+                .willReturn(Arrays.asList(first, second));
+
+        // Execution
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(BOOK_API)
+                .param("author", "J.R.R. Tolkien")
+                .param("after", "10")
+                .param("size", "2")
+                .accept(MediaType.APPLICATION_JSON);
+        mvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content", Matchers.hasSize(2)))
+                .andExpect(jsonPath("content[0].id").value(11))
+                .andExpect(jsonPath("nextCursor").value(12));
+    }
+
+    @Test
+    @DisplayName("Must not return a cursor on the last page")
+    public void listBooksLastPageTest() throws Exception {
+        // Scenario
+        Book book = Book.builder().id(11L).author("J.R.R. Tolkien").title("The Hobbit").isbn("0001").build();
+        BDDMockito.given(service.find(Mockito.any(BookFilter.class), Mockito.isNull(), Mockito.eq(20)))
+                .willReturn(Collections.singletonList(book));
+
+        // Execution
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(BOOK_API)
+                .accept(MediaType.APPLICATION_JSON);
+        mvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content", Matchers.hasSize(1)))
+                .andExpect(jsonPath("nextCursor").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Must stream the catalog as NDJSON")
+    public void exportBooksTest() throws Exception {
+        // Scenario
+        Book book = Book.builder().id(1L).author("J.R.R. Tolkien").title("The Hobbit").isbn("0001").build();
+        Mockito.doAnswer( invocation -> {
+            invocation.<Consumer<Book>>getArgument(0).accept(book);
+            return null;
+        }).when(service).exportAll(Mockito.any());
+
+        // Execution
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/export")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Verification
+        assertThat(result.getRequest().getAsyncContext().getTimeout()).isEqualTo(Duration.ofHours(1).toMillis());
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string("{\"id\":1,\"title\":\"The Hobbit\",\"author\":\"J.R.R. Tolkien\",\"isbn\":\"0001\"}\n"));
+    }
+
+    @Test
+    @DisplayName("Must reject an unknown export format")
+    public void exportUnknownFormatTest() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/export")).param("format", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors[0]").value("Unknown export format!"));
+    }
+
+    @Test
+    @DisplayName("Must look up books by id and isbn, in request order and with not found markers")
+    public void lookupBooksTest() throws Exception {
+        // Scenario
+        BookDTO first = BookDTO.builder().id(11L).author("J.R.R. Tolkien").title("The Hobbit").isbn("0001").build();
+        BookDTO second = BookDTO.builder().id(12L).author("J.R.R. Tolkien").title("The Silmarillion").isbn("0002").build();
+        BDDMockito.given(service.getByIds(Arrays.asList(12L, 99L)))
+                .willReturn(Arrays.asList(Optional.of(second), Optional.empty()));
+        BDDMockito.given(service.getByIsbns(Collections.singletonList("0001")))
+                .willReturn(Collections.singletonList(Optional.of(first)));
+        String json = new ObjectMapper().writeValueAsString(BookLookupDTO.builder()
+                .ids(Arrays.asList(12L, 99L))
+                .isbns(Collections.singletonList("0001"))
+                .build());
+
+        // Execution
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(BOOK_API.concat("/lookup"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(json);
+        mvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(3)))
+                .andExpect(jsonPath("[0].id").value(12))
+                .andExpect(jsonPath("[0].found").value(true))
+                .andExpect(jsonPath("[0].book.title").value("The Silmarillion"))
+                .andExpect(jsonPath("[1].id").value(99))
+                .andExpect(jsonPath("[1].found").value(false))
+                .andExpect(jsonPath("[1].book").doesNotExist())
+                .andExpect(jsonPath("[2].isbn").value("0001"))
+                .andExpect(jsonPath("[2].book.id").value(11));
+    }
+
+    @Test
+    @DisplayName("Must reject lookups above the configured item limit")
+    public void lookupTooManyBooksTest() throws Exception {
+        // Scenario
+        List<Long> ids = LongStream.rangeClosed(1, 1001).boxed().collect(Collectors.toList());
+        String json = new ObjectMapper().writeValueAsString(BookLookupDTO.builder().ids(ids).build());
+
+        // Execution
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(BOOK_API.concat("/lookup"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json);
+        mvc.perform(request)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors[0]").value("Too many items to look up, the limit is 1000!"));
+        Mockito.verify(service, Mockito.never()).getByIds(Mockito.anyList());
+        Mockito.verify(businessErrors).increment("Too many items to look up, the limit is 1000!");    // Controller errors count too
+    }
+
+    @Test
+    @DisplayName("Must return a ranked page of books matching the search")
+    public void searchBooksTest() throws Exception {
+        // Scenario
+        BookDTO book = BookDTO.builder().id(11L).author("J.R.R. Tolkien").title("The Hobbit").isbn("0001").build();
+        BDDMockito.given(service.search("tolkien hobbit", 20, 10))
+                .willReturn(new BookSearchResult(Collections.singletonList(book), 21));
+
+        // Execution
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(BOOK_API.concat("/search"))
+                .param("q", "tolkien hobbit")
+                .param("page", "2")
+                .param("size", "10")
+                .accept(MediaType.APPLICATION_JSON);
+        mvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("content", Matchers.hasSize(1)))
+                .andExpect(jsonPath("content[0].title").value("The Hobbit"))
+                .andExpect(jsonPath("total").value(21))
+                .andExpect(jsonPath("page").value(2));
+    }
+
+    @Test
+    @DisplayName("Must refuse search pages beyond the maximum depth")
+    public void searchBooksTooDeepTest() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/search")).param("q", "tolkien").param("page", "50"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors[0]").value("Search results are limited to the first 1000 matches!"));
+    }
+
+    @Test
+    @DisplayName("Must return the changes after the cursor with the cursor to continue from")
+    public void listChangesTest() throws Exception {
+        // Scenario
+        BookChangeDTO first = BookChangeDTO.builder().cursor(41L).id(11L).author("J.R.R. Tolkien").title("The Hobbit").isbn("0001").build();
+        BookChangeDTO second = BookChangeDTO.builder().cursor(42L).id(12L).author("J.R.R. Tolkien").title("The Silmarillion").isbn("0002").build();
+        BDDMockito.given(service.getChanges(40L, 2)).willReturn(Arrays.asList(first, second));
+
+        // Execution
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(BOOK_API.concat("/changes"))
+                .param("since", "40")
+                .param("size", "2")
+                .accept(MediaType.APPLICATION_JSON);
+        mvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("changes", Matchers.hasSize(2)))
+                .andExpect(jsonPath("changes[0].cursor").value(41))
+                .andExpect(jsonPath("changes[1].title").value("The Silmarillion"))
+                .andExpect(jsonPath("nextCursor").value(42))
+                .andExpect(jsonPath("more").value(true));
+    }
+
+    @Test
+    @DisplayName("Must keep the cursor when there are no new changes")
+    public void listNoChangesTest() throws Exception {
+        // Scenario
+        BDDMockito.given(service.getChanges(42L, 100)).willReturn(Collections.emptyList());
+
+        // Execution
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/changes")).param("since", "42"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("changes", Matchers.hasSize(0)))
+                .andExpect(jsonPath("nextCursor").value(42))
+                .andExpect(jsonPath("more").value(false));
+    }
+
+    @Test
+    @DisplayName("Must open an event stream of the changes")
+    public void streamChangesTest() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("/changes/stream"))
+                        .header("Last-Event-ID", "42")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM));
+    }
 }
@@ -0,0 +1,139 @@
+package br.com.study.libraryapi.controller;
+
+import br.com.study.libraryapi.changes.BookChangeStream;
+import br.com.study.libraryapi.dto.BookDTO;
+import br.com.study.libraryapi.model.entity.Book;
+import br.com.study.libraryapi.service.BookService;
+import br.com.study.libraryapi.writebehind.CreateStatus;
+import br.com.study.libraryapi.writebehind.WriteBehindQueue;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@WebMvcTest(properties = "library.write-behind.enabled=true")
+@AutoConfigureMockMvc
+public class BookWriteBehindControllerTest {
+
+    public static String WRITE_BEHIND_API = "/api/books/async";
+
+    @Autowired
+    MockMvc mvc;
+    @MockBean
+    BookService service;
+    @MockBean
+    BookChangeStream changeStream;
+    @MockBean
+    WriteBehindQueue queue;
+
+    @Test
+    @DisplayName("Must accept a book with 202 and a tracking id")
+    public void acceptBookTest() throws Exception {
+        // Scenario
+        BookDTO dto = BookDTO.builder().author("Francis Chan").title("Crazy Love").isbn("9780306406157").build();
+        BDDMockito.given(queue.submit(Mockito.any(Book.class))).willReturn("abc");
+
+        // Execution
+        mvc.perform(createBook(dto))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, "http://localhost/api/books/async/abc"))
+                .andExpect(jsonPath("trackingId").value("abc"))
+                .andExpect(jsonPath("status").value("PENDING"));
+
+        // Verification
+        Mockito.verify(service, Mockito.never()).save(Mockito.any(Book.class));
+    }
+
+    @Test
+    @DisplayName("Must answer 503 with Retry-After while the queue is full")
+    public void queueFullTest() throws Exception {
+        // Scenario
+        BookDTO dto = BookDTO.builder().author("Francis Chan").title("Crazy Love").isbn("9780306406157").build();
+        BDDMockito.given(queue.submit(Mockito.any(Book.class))).willThrow(new RejectedExecutionException());
+
+        // Execution and Verification
+        mvc.perform(createBook(dto))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
+
+    @Test
+    @DisplayName("Must validate the book before queueing it")
+    public void invalidBookTest() throws Exception {
+        // Execution
+        mvc.perform(createBook(new BookDTO()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors").isArray());
+
+        // Verification
+        Mockito.verify(queue, Mockito.never()).submit(Mockito.any(Book.class));
+    }
+
+    @Test
+    @DisplayName("Must report the stored book of a tracking id")
+    public void createdStatusTest() throws Exception {
+        // Scenario
+        Book book = Book.builder().id(10L).author("Francis Chan").title("Crazy Love").isbn("9780306406157").build();
+        BDDMockito.given(queue.status("abc")).willReturn(Optional.of(CreateStatus.created(book)));
+
+        // Execution and Verification
+        mvc.perform(MockMvcRequestBuilders.get(WRITE_BEHIND_API + "/abc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("status").value("CREATED"))
+                .andExpect(jsonPath("book.id").value(10));
+    }
+
+    @Test
+    @DisplayName("Must report why a create failed")
+    public void failedStatusTest() throws Exception {
+        // Scenario
+        Book book = Book.builder().author("Francis Chan").title("Crazy Love").isbn("9780306406157").build();
+        BDDMockito.given(queue.status("abc")).willReturn(Optional.of(CreateStatus.failed(book, "Isbn already exists!")));
+
+        // Execution and Verification
+        mvc.perform(MockMvcRequestBuilders.get(WRITE_BEHIND_API + "/abc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("status").value("FAILED"))
+                .andExpect(jsonPath("error").value("Isbn already exists!"));
+    }
+
+    @Test
+    @DisplayName("Must answer 404 for an unknown or expired tracking id")
+    public void unknownTrackingIdTest() throws Exception {
+        // Scenario
+        BDDMockito.given(queue.status("abc")).willReturn(Optional.empty());
+
+        // Execution and Verification
+        mvc.perform(MockMvcRequestBuilders.get(WRITE_BEHIND_API + "/abc"))
+                .andExpect(status().isNotFound());
+    }
+
+    private MockHttpServletRequestBuilder createBook(BookDTO dto) throws Exception {
+        return MockMvcRequestBuilders.post(WRITE_BEHIND_API)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(new ObjectMapper().writeValueAsString(dto));
+    }
+}
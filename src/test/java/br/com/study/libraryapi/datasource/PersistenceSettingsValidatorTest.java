@@ -0,0 +1,35 @@
+package br.com.study.libraryapi.datasource;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.jdbc.batch_size=1")
+@Import(PersistenceSettingsValidator.class)
+public class PersistenceSettingsValidatorTest {
+
+    @Autowired
+    PersistenceSettingsValidator validator;
+
+    @Test
+    @DisplayName("Must warn about settings that defeat insert batching, and only about those")
+    public void reportsBatchSizeTest(){
+        // Execution
+        List<String> problems = validator.problems();
+
+        // Verification
+        assertThat(problems).hasSize(1);        // Book ids use a pooled sequence and inserts are ordered
+        assertThat(problems.get(0)).contains("hibernate.jdbc.batch_size is 1");
+    }
+}
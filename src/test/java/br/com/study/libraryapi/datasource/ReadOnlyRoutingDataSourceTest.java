@@ -0,0 +1,35 @@
+package br.com.study.libraryapi.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReadOnlyRoutingDataSourceTest {
+
+    ReadOnlyRoutingDataSource dataSource = new ReadOnlyRoutingDataSource(Mockito.mock(DataSource.class), Mockito.mock(DataSource.class));
+
+    @AfterEach
+    public void tearDown(){
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    @DisplayName("Must route read-only transactions to the replica")
+    public void readOnlyGoesToReplicaTest(){
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(dataSource.determineCurrentLookupKey()).isEqualTo(ReadOnlyRoutingDataSource.Target.REPLICA);
+    }
+
+    @Test
+    @DisplayName("Must route read-write transactions and non-transactional work to the primary")
+    public void readWriteGoesToPrimaryTest(){
+        assertThat(dataSource.determineCurrentLookupKey()).isEqualTo(ReadOnlyRoutingDataSource.Target.PRIMARY);
+    }
+}
@@ -0,0 +1,96 @@
+package br.com.study.libraryapi.export;
+
+import br.com.study.libraryapi.service.BookService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exports a table much larger than the heap. Runs in its own surefire execution with a small -Xmx (see pom.xml),
+ * so it only passes if the export really streams instead of loading the whole table.
+ * Uses a file database because an in-memory H2 would keep the table itself on the heap.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/export-heap-test/books;LAZY_QUERY_EXECUTION=1;CACHE_SIZE=8192",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@ActiveProfiles("test")
+public class BookExportHeapTest {
+
+    private static final int ROWS = 1_000_000;
+    private static final int INSERT_BATCH = 5_000;
+
+    @Autowired
+    BookService bookService;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp(){
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        for (long id = 1; id <= ROWS; id++) {
+            batch.add(new Object[]{ id, "Generated title number " + id, "Generated author " + (id % 5_000), String.format("%013d", id) });
+            if (batch.size() == INSERT_BATCH) {
+                jdbcTemplate.batchUpdate("insert into book (id, title, author, isbn) values (?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    @AfterEach
+    public void tearDown(){
+        jdbcTemplate.update("delete from book");
+    }
+
+    @Test
+    @DisplayName("Must export the whole table with constant heap use")
+    public void exportLargeTableTest() throws Exception {
+        // Scenario
+        CountingOutputStream out = new CountingOutputStream();
+        AtomicLong exported = new AtomicLong();
+
+        // Execution
+        try (BookExportWriter writer = BookExportWriter.of(ExportFormat.NDJSON, out)) {
+            bookService.exportAll( book -> {
+                try {
+                    writer.write(book);
+                    exported.incrementAndGet();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+
+        // Verification
+        assertThat(exported.get()).isEqualTo(ROWS);
+        assertThat(out.count).isGreaterThan(Runtime.getRuntime().maxMemory() / 2);     // The output alone wouldn't fit comfortably in the heap
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
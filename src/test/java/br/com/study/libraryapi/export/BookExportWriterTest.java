@@ -0,0 +1,62 @@
+package br.com.study.libraryapi.export;
+
+import br.com.study.libraryapi.exception.BusinessException;
+import br.com.study.libraryapi.model.entity.Book;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BookExportWriterTest {
+
+    @Test
+    @DisplayName("Must write one JSON object per line")
+    public void writeNdjsonTest() throws Exception {
+        // Scenario
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Execution
+        try (BookExportWriter writer = BookExportWriter.of(ExportFormat.NDJSON, out)) {
+            writer.write(Book.builder().id(1L).title("The Hobbit").author("J.R.R. Tolkien").isbn("0001").build());
+            writer.write(Book.builder().id(2L).title("Mere \"Christianity\"").author("C.S. Lewis").isbn("0002").build());
+        }
+
+        // Verification
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "{\"id\":1,\"title\":\"The Hobbit\",\"author\":\"J.R.R. Tolkien\",\"isbn\":\"0001\"}\n" +
+                "{\"id\":2,\"title\":\"Mere \\\"Christianity\\\"\",\"author\":\"C.S. Lewis\",\"isbn\":\"0002\"}\n");
+    }
+
+    @Test
+    @DisplayName("Must write a CSV header and quote the fields that need it")
+    public void writeCsvTest() throws Exception {
+        // Scenario
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Execution
+        try (BookExportWriter writer = BookExportWriter.of(ExportFormat.CSV, out)) {
+            writer.write(Book.builder().id(1L).title("The Hobbit").author("J.R.R. Tolkien").isbn("0001").build());
+            writer.write(Book.builder().id(2L).title("Letters, \"Screwtape\"").author("C.S. Lewis").isbn("0002").build());
+        }
+
+        // Verification
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "id,title,author,isbn\n" +
+                "1,The Hobbit,J.R.R. Tolkien,0001\n" +
+                "2,\"Letters, \"\"Screwtape\"\"\",C.S. Lewis,0002\n");
+    }
+
+    @Test
+    @DisplayName("Must reject an unknown export format")
+    public void unknownFormatTest(){
+        Throwable exception = Assertions.catchThrowable(() -> ExportFormat.fromName("xml"));
+
+        assertThat(exception)
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("Unknown export format!");
+    }
+}
@@ -0,0 +1,115 @@
+package br.com.study.libraryapi.isbn;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IsbnIndexTest {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Must normalize ISBN-10 and ISBN-13 variants to the same ISBN-13")
+    public void normalizeTest(){
+        assertThat(Isbns.toIsbn13("9780306406157")).isEqualTo(9780306406157L);
+        assertThat(Isbns.toIsbn13("978-0-306-40615-7")).isEqualTo(9780306406157L);
+        assertThat(Isbns.toIsbn13("0-306-40615-2")).isEqualTo(9780306406157L);
+        assertThat(Isbns.toIsbn13("0 8044 2957 X")).isEqualTo(9780804429573L);
+        assertThat(Isbns.toIsbn13("123")).isEqualTo(Isbns.NOT_AN_ISBN);
+        assertThat(Isbns.toIsbn13("97803064061X7")).isEqualTo(Isbns.NOT_AN_ISBN);
+    }
+
+    @Test
+    @DisplayName("Must accept only ISBNs with a correct check digit")
+    public void parseValidTest(){
+        assertThat(Isbns.parseValid("978-0-306-40615-7")).isEqualTo(9780306406157L);
+        assertThat(Isbns.parseValid("0-306-40615-2")).isEqualTo(9780306406157L);
+        assertThat(Isbns.parseValid("0 8044 2957 x")).isEqualTo(9780804429573L);
+        assertThat(Isbns.parseValid("979-10-90636-07-1")).isEqualTo(9791090636071L);
+        assertThat(Isbns.parseValid("978-0-306-40615-8")).isEqualTo(Isbns.NOT_AN_ISBN);       // Wrong ISBN-13 check digit
+        assertThat(Isbns.parseValid("0-306-40615-3")).isEqualTo(Isbns.NOT_AN_ISBN);           // Wrong ISBN-10 check digit
+        assertThat(Isbns.parseValid("1234567890128")).isEqualTo(Isbns.NOT_AN_ISBN);           // Checksum fine, no 978/979 prefix
+        assertThat(Isbns.parseValid("")).isEqualTo(Isbns.NOT_AN_ISBN);
+        assertThat(Isbns.parseValid(null)).isEqualTo(Isbns.NOT_AN_ISBN);
+        assertThat(Isbns.toIsbn13("978-0-306-40615-8")).isEqualTo(9780306406158L);        // The index still takes it as given
+    }
+
+    @Test
+    @DisplayName("Must canonicalize valid ISBNs to their compact ISBN-13")
+    public void canonicalTest(){
+        String compact = "9780306406157";
+
+        assertThat(Isbns.canonical(compact)).isSameAs(compact);       // Nothing allocated when it's already canonical
+        assertThat(Isbns.canonical("978 0 306 40615 7")).isEqualTo(compact);
+        assertThat(Isbns.canonical("0-306-40615-2")).isEqualTo(compact);
+        assertThat(Isbns.canonical("030640615X")).isNull();
+        assertThat(Isbns.isbn13(30640615L)).isEqualTo(9780306406157L);
+        assertThat(Isbns.isValid(Long.toString(Isbns.isbn13(123_456_789L)))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Must validate the @Isbn constraint, leaving nulls to @NotNull")
+    public void validatorTest(){
+        IsbnValidator validator = new IsbnValidator();
+
+        assertThat(validator.isValid("978-0-306-40615-7", null)).isTrue();
+        assertThat(validator.isValid(null, null)).isTrue();
+        assertThat(validator.isValid("001", null)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Must find the isbns added, in any of their forms")
+    public void mightContainTest(){
+        // Scenario
+        IsbnIndex index = new IsbnIndex(1000, 0.01, true, meterRegistry);
+
+        // Execution
+        index.add("978-0-306-40615-7");
+        index.add("123");
+
+        // Verification
+        assertThat(index.mightContain("0-306-40615-2")).isTrue();
+        assertThat(index.mightContain("123")).isTrue();
+        assertThat(index.mightContain("9780804429573")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Must keep the false positive rate close to the configured one")
+    public void bloomFalsePositiveRateTest(){
+        // Scenario
+        IsbnIndex index = new IsbnIndex(10_000, 0.01, false, meterRegistry);
+        for (int i = 0; i < 10_000; i++)
+            index.add("stored-" + i);
+
+        // Execution
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (index.mightContain("absent-" + i))
+                falsePositives++;
+        }
+
+        // Verification
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+        for (int i = 0; i < 10_000; i++)
+            assertThat(index.mightContain("stored-" + i)).isTrue();        // No false negatives
+        assertThat(meterRegistry.get("library.isbn.index.false.positive.rate").gauge().value()).isLessThan(0.02);
+        assertThat(meterRegistry.get("library.isbn.index.memory").gauge().value()).isGreaterThan(0);
+    }
+
+    @Test
+    @DisplayName("Must answer exactly for ISBN-13 numbers when the exact set is on")
+    public void exactSetTest(){
+        // Scenario
+        IsbnIndex index = new IsbnIndex(16, 0.5, true, meterRegistry);       // A tiny, very inaccurate filter
+        for (long i = 0; i < 5_000; i++)
+            index.add(Long.toString(9780000000000L + i * 10));
+
+        // Verification
+        for (long i = 0; i < 5_000; i++) {
+            assertThat(index.mightContain(Long.toString(9780000000000L + i * 10))).isTrue();
+            assertThat(index.mightContain(Long.toString(9780000000000L + i * 10 + 1))).isFalse();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package br.com.study.libraryapi.isbn;
+
+import br.com.study.libraryapi.cache.BookCache;
+import br.com.study.libraryapi.changes.BookChangeLog;
+import br.com.study.libraryapi.dto.BookChangeDTO;
+import br.com.study.libraryapi.model.entity.Book;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest(properties = {"library.isbn.migration.enabled=true", "library.isbn.migration.batch-size=2"})
+@Import({IsbnMigration.class, BookChangeLog.class})
+public class IsbnMigrationTest {
+
+    @Autowired
+    TestEntityManager entityManager;
+    @Autowired
+    IsbnMigration migration;
+    @Autowired
+    BookChangeLog changeLog;
+    @MockBean
+    BookCache bookCache;
+
+    @Test
+    @DisplayName("Must rewrite stored isbns to their canonical form, keeping duplicates and invalid ones")
+    public void migrateTest(){
+        // Scenario
+        Long hyphenated = persist("The Hobbit", "978-0-261-10325-2");
+        Long isbn10 = persist("Crazy Love", "0-306-40615-2");
+        Long duplicate = persist("Crazy Love", "9780306406157");       // Same book once the first one is rewritten
+        Long canonical = persist("The Pursuit of God", "9780804429573");
+        Long invalid = persist("Walking with Jesus", "124789");
+        entityManager.flush();
+        entityManager.clear();
+
+        // Execution
+        migration.run(null);
+
+        // Verification
+        assertThat(isbnOf(hyphenated)).isEqualTo("9780261103252");
+        assertThat(isbnOf(isbn10)).isEqualTo("0-306-40615-2");
+        assertThat(isbnOf(duplicate)).isEqualTo("9780306406157");
+        assertThat(isbnOf(canonical)).isEqualTo("9780804429573");
+        assertThat(isbnOf(invalid)).isEqualTo("124789");
+        List<BookChangeDTO> changes = changeLog.changesAfter(0, 10);
+        assertThat(changes).extracting(BookChangeDTO::getId).containsExactly(hyphenated);
+        Mockito.verify(bookCache).clear();
+    }
+
+    private Long persist(String title, String isbn){
+        return entityManager.persist(Book.builder().title(title).author("Author").isbn(isbn).build()).getId();
+    }
+
+    private String isbnOf(Long id){
+        return entityManager.find(Book.class, id).getIsbn();
+    }
+}
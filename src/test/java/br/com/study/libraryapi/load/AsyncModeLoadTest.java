@@ -0,0 +1,87 @@
+package br.com.study.libraryapi.load;
+
+import br.com.study.libraryapi.LibraryApiApplication;
+import br.com.study.libraryapi.model.entity.Book;
+import br.com.study.libraryapi.repository.BookRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares throughput and latency of GET /api/books/{id} with library.async.enabled off and on.
+ * Tomcat is capped at 20 threads and the cache is disabled, so every request blocks a worker on JDBC,
+ * reproducing the "workers exhausted before the database is" situation with far more clients than workers.
+ *
+ * Run with: ./mvnw test -Dtest=AsyncModeLoadTest -Dloadtest=true
+ * Results are printed and written to target/load-async-mode.json.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+public class AsyncModeLoadTest {
+
+    private static final int BOOKS = 1_000;
+    private static final int CLIENTS = Integer.getInteger("load.clients", 200);
+    private static final long WARMUP_MILLIS = Long.getLong("load.warmup", 5_000);
+    private static final long DURATION_MILLIS = Long.getLong("load.duration", 20_000);
+
+    @Test
+    @DisplayName("Must compare the sync and async execution modes under load")
+    public void compareExecutionModes() throws Exception {
+        List<LoadResult> results = new ArrayList<>();
+        results.add(runMode(false));
+        results.add(runMode(true));
+
+        ObjectMapper json = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        json.writeValue(new File("target/load-async-mode.json"), results);
+        System.out.println(json.writeValueAsString(results));
+
+        assertThat(results).allMatch(result -> result.getRequests() > 0);
+    }
+
+    private LoadResult runMode(boolean async) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(LibraryApiApplication.class)
+                .properties("server.port=0",
+                        "server.tomcat.threads.max=20",
+                        "spring.datasource.hikari.maximum-pool-size=20",
+                        "library.cache.books.max-size=0",       // Every request reaches the database
+                        "library.async.enabled=" + async,
+                        "library.async.pool-size=20",
+                        "library.async.queue-capacity=2000")
+                .run()) {
+            BookRepository repository = context.getBean(BookRepository.class);
+            List<Book> books = new ArrayList<>();
+            for (int i = 0; i < BOOKS; i++)
+                books.add(Book.builder().title("Load test book " + i).author("Author " + i).isbn("load-" + i).build());
+            long[] ids = repository.saveAll(books).stream().mapToLong(Book::getId).toArray();
+            Arrays.sort(ids);
+
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+            LoadGenerator generator = new LoadGenerator(CLIENTS, WARMUP_MILLIS, DURATION_MILLIS);
+            return generator.run(async ? "async" : "sync", (c, i) -> {
+                long id = ids[(int) ((c * 7919L + i) % ids.length)];
+                HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/books/" + id))
+                        .timeout(Duration.ofSeconds(30))
+                        .GET()
+                        .build();
+                return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            });
+        }
+    }
+}
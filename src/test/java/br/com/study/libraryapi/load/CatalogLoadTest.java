@@ -0,0 +1,141 @@
+package br.com.study.libraryapi.load;
+
+import br.com.study.libraryapi.catalog.CatalogGenerator;
+import br.com.study.libraryapi.isbn.Isbns;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives a running instance with a mix of GET /api/books/{id} (hits and misses) and POST /api/books
+ * (new and duplicated isbns), and reports throughput and latency percentiles of the whole mix and of
+ * each request kind. Meant for an instance started with the catalog generator and the same books and seed:
+ *
+ *   ./mvnw spring-boot:run -Dspring-boot.run.arguments="--library.catalog.generator.enabled=true --library.catalog.generator.books=1000000"
+ *   ./mvnw -Ploadtest test -Dload.books=1000000 -Dload.read-ratio=0.9 -Dload.miss-ratio=0.05 -Dload.duplicate-ratio=0.2
+ *
+ * Hits read ids 1..books, which is what the generator gives an empty database. For soak tests, raise
+ * load.windows: the run is measured in consecutive windows of load.duration, one result each, so
+ * degradation over time shows up and the kept latencies stay bounded.
+ * Results are printed and written to target/load-catalog.json (load.output).
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+public class CatalogLoadTest {
+
+    private static final String URL = System.getProperty("load.url", "http://localhost:8080");
+    private static final long BOOKS = Long.getLong("load.books", 1_000_000);
+    private static final long SEED = Long.getLong("load.seed", 42);
+    private static final double READ_RATIO = Double.parseDouble(System.getProperty("load.read-ratio", "0.9"));
+    private static final double MISS_RATIO = Double.parseDouble(System.getProperty("load.miss-ratio", "0.05"));
+    private static final double DUPLICATE_RATIO = Double.parseDouble(System.getProperty("load.duplicate-ratio", "0.1"));
+    private static final int CLIENTS = Integer.getInteger("load.clients", 32);
+    private static final long WARMUP_MILLIS = Long.getLong("load.warmup", 10_000);
+    private static final long DURATION_MILLIS = Long.getLong("load.duration", 60_000);
+    private static final int WINDOWS = Integer.getInteger("load.windows", 1);
+    private static final String OUTPUT = System.getProperty("load.output", "target/load-catalog.json");
+    // Ids that can't exist: far above anything the generator or the creates of a test reach
+    private static final long MISSING_IDS_FROM = 1_000_000_000_000L;
+
+    @Test
+    @DisplayName("Must run the configured read/write mix against a running instance")
+    public void runMix() throws Exception {
+        assertThat(BOOKS).isPositive();
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        // Serials of the books created here, above the generated ones; a new offset per run avoids the
+        // isbns of earlier runs against the same instance, and load.create-offset repeats a run exactly
+        long createOffset = Long.getLong("load.create-offset",
+                Math.floorMod(System.nanoTime(), CatalogGenerator.GENERATED_SERIALS / 2));
+        AtomicLong created = new AtomicLong();
+
+        List<LoadGenerator.Operation> mix = Arrays.asList(
+                new LoadGenerator.Operation("read", READ_RATIO * (1 - MISS_RATIO),
+                        (c, i) -> get(client, "/api/books/" + (1 + index(c, i, BOOKS)))),
+                new LoadGenerator.Operation("read-miss", READ_RATIO * MISS_RATIO,
+                        (c, i) -> get(client, "/api/books/" + (MISSING_IDS_FROM + index(c, i, Long.MAX_VALUE - MISSING_IDS_FROM)))),
+                new LoadGenerator.Operation("create", (1 - READ_RATIO) * (1 - DUPLICATE_RATIO),
+                        (c, i) -> {
+                            long serial = CatalogGenerator.GENERATED_SERIALS
+                                    + (createOffset + created.incrementAndGet()) % CatalogGenerator.GENERATED_SERIALS;
+                            return post(client, Long.toString(Isbns.isbn13(serial)), i);
+                        }),
+                new LoadGenerator.Operation("create-duplicate", (1 - READ_RATIO) * DUPLICATE_RATIO,
+                        (c, i) -> post(client, CatalogGenerator.isbn(index(c, i, BOOKS), SEED), i)));
+
+        List<LoadResult> results = new ArrayList<>();
+        List<LoadResult> windows = new ArrayList<>();
+        for (int window = 0; window < WINDOWS; window++) {
+            LoadGenerator generator = new LoadGenerator(CLIENTS, window == 0 ? WARMUP_MILLIS : 0, DURATION_MILLIS);
+            List<LoadResult> windowResults = generator.run(WINDOWS == 1 ? "mix" : "mix-" + (window + 1), mix);
+            windows.add(windowResults.get(0));
+            results.addAll(windowResults);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("url", URL);
+        settings.put("books", BOOKS);
+        settings.put("seed", SEED);
+        settings.put("readRatio", READ_RATIO);
+        settings.put("missRatio", MISS_RATIO);
+        settings.put("duplicateRatio", DUPLICATE_RATIO);
+        settings.put("clients", CLIENTS);
+        settings.put("warmupMillis", WARMUP_MILLIS);
+        settings.put("windows", WINDOWS);
+        settings.put("createOffset", createOffset);
+        report.put("settings", settings);
+        report.put("results", results);
+
+        ObjectMapper json = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        File output = new File(OUTPUT);
+        if (output.getParentFile() != null)
+            output.getParentFile().mkdirs();
+        json.writeValue(output, report);
+        System.out.println(json.writeValueAsString(report));
+
+        assertThat(windows).allMatch(window -> window.getRequests() > 0);
+    }
+
+    /** A number in [0, bound) that depends only on the client and the iteration, so runs repeat. */
+    private static long index(int client, long iteration, long bound) {
+        long h = (client * 0x9e3779b97f4a7c15L) ^ (iteration + SEED);
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return Math.floorMod(h ^ (h >>> 31), bound);
+    }
+
+    private static int get(HttpClient client, String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(URL + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static int post(HttpClient client, String isbn, long iteration) throws Exception {
+        String body = "{\"title\":\"Load test book " + iteration + "\",\"author\":\"Load test\",\"isbn\":\"" + isbn + "\"}";
+        HttpRequest request = HttpRequest.newBuilder(URI.create(URL + "/api/books"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
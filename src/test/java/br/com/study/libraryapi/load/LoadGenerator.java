@@ -0,0 +1,170 @@
+package br.com.study.libraryapi.load;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.*;
+
+/**
+ * Closed-loop load driver: {@code clients} threads call the request over and over for the given duration
+ * and keep every latency, so percentiles are exact rather than estimated.
+ */
+public class LoadGenerator {
+
+    /** One request; returns the HTTP status, or a negative number for transport errors. */
+    @FunctionalInterface
+    public interface Request {
+        int execute(int client, long iteration) throws Exception;
+    }
+
+    /** One kind of request of a mix, picked with probability weight / sum of the weights. */
+    public static class Operation {
+        final String name;
+        final double weight;
+        final Request request;
+
+        public Operation(String name, double weight, Request request) {
+            if (weight < 0)
+                throw new IllegalArgumentException("Weight can't be negative: " + weight);
+            this.name = name;
+            this.weight = weight;
+            this.request = request;
+        }
+    }
+
+    private final int clients;
+    private final long warmupMillis;
+    private final long durationMillis;
+
+    public LoadGenerator(int clients, long warmupMillis, long durationMillis) {
+        this.clients = clients;
+        this.warmupMillis = warmupMillis;
+        this.durationMillis = durationMillis;
+    }
+
+    public LoadResult run(String name, Request request) throws InterruptedException {
+        return run(name, Collections.singletonList(new Operation(name, 1, request))).get(0);
+    }
+
+    /**
+     * Runs a weighted mix of requests. Each client picks its operations from its own seeded random
+     * sequence, so the same mix repeats the same picks. Returns the whole mix first, then one result per
+     * operation, named {@code name-operation}.
+     */
+    public List<LoadResult> run(String name, List<Operation> mix) throws InterruptedException {
+        double[] cumulativeWeights = new double[mix.size()];
+        double totalWeight = 0;
+        for (int o = 0; o < mix.size(); o++) {
+            totalWeight += mix.get(o).weight;
+            cumulativeWeights[o] = totalWeight;
+        }
+        if (totalWeight <= 0)
+            throw new IllegalArgumentException("The mix needs an operation with a positive weight");
+        double weights = totalWeight;
+
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.MILLISECONDS.toNanos(warmupMillis);
+        long end = measureFrom + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        Samples[][] samples = new Samples[clients][];
+
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            executor.execute(() -> {
+                SplittableRandom random = new SplittableRandom(client);
+                Samples[] own = new Samples[mix.size()];
+                for (int o = 0; o < own.length; o++)
+                    own[o] = new Samples();
+                for (long i = 0; ; i++) {
+                    int operation = pick(cumulativeWeights, random.nextDouble() * weights);
+                    long before = System.nanoTime();
+                    if (before >= end)
+                        break;
+                    int status;
+                    try {
+                        status = mix.get(operation).request.execute(client, i);
+                    } catch (Exception e) {
+                        status = -1;
+                    }
+                    long after = System.nanoTime();
+                    if (before < measureFrom)
+                        continue;
+                    own[operation].add(status, after - before);
+                }
+                samples[client] = own;
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(warmupMillis + durationMillis + 60_000, TimeUnit.MILLISECONDS);
+
+        List<LoadResult> results = new ArrayList<>(mix.size() + 1);
+        List<Samples> all = new ArrayList<>();
+        for (Samples[] own : samples)
+            if (own != null)
+                all.addAll(Arrays.asList(own));
+        results.add(result(name, all));
+        if (mix.size() > 1) {
+            for (int o = 0; o < mix.size(); o++) {
+                List<Samples> operation = new ArrayList<>();
+                for (Samples[] own : samples)
+                    if (own != null)
+                        operation.add(own[o]);
+                results.add(result(name + "-" + mix.get(o).name, operation));
+            }
+        }
+        return results;
+    }
+
+    private static int pick(double[] cumulativeWeights, double value) {
+        for (int o = 0; o < cumulativeWeights.length - 1; o++)
+            if (value < cumulativeWeights[o])
+                return o;
+        return cumulativeWeights.length - 1;
+    }
+
+    private LoadResult result(String name, List<Samples> samples) {
+        int total = 0;
+        for (Samples own : samples)
+            total += own.count;
+        long[] all = new long[total];
+        int offset = 0;
+        Map<String, Long> byStatus = new LinkedHashMap<>();
+        for (Samples own : samples) {
+            System.arraycopy(own.latencies, 0, all, offset, own.count);
+            offset += own.count;
+            own.statuses.forEach((status, count) -> byStatus.merge(String.valueOf(status), count, Long::sum));
+        }
+        Arrays.sort(all, 0, offset);
+
+        return new LoadResult(name, clients, durationMillis, offset, byStatus,
+                offset * 1000.0 / durationMillis,
+                percentileMillis(all, offset, 50), percentileMillis(all, offset, 90),
+                percentileMillis(all, offset, 99), percentileMillis(all, offset, 99.9),
+                offset == 0 ? 0 : all[offset - 1] / 1_000_000.0);
+    }
+
+    private static double percentileMillis(long[] sorted, int size, double percentile) {
+        if (size == 0)
+            return 0;
+        int index = (int) Math.ceil(percentile / 100.0 * size) - 1;
+        return sorted[Math.max(0, Math.min(index, size - 1))] / 1_000_000.0;
+    }
+
+    /** Latencies and statuses of one client and operation; only touched by that client's thread. */
+    private static final class Samples {
+        long[] latencies = new long[1024];
+        int count;
+        final Map<Integer, Long> statuses = new LinkedHashMap<>();
+
+        void add(int status, long latency) {
+            statuses.merge(status, 1L, Long::sum);
+            if (count == latencies.length)
+                latencies = Arrays.copyOf(latencies, count * 2);
+            latencies[count++] = latency;
+        }
+    }
+}
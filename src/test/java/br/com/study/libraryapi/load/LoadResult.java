@@ -0,0 +1,24 @@
+package br.com.study.libraryapi.load;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoadResult {
+    private String name;
+    private int clients;
+    private long durationMillis;
+    private long requests;
+    private Map<String, Long> statuses;
+    private double throughputPerSecond;
+    private double p50Millis;
+    private double p90Millis;
+    private double p99Millis;
+    private double p999Millis;
+    private double maxMillis;
+}
@@ -0,0 +1,105 @@
+package br.com.study.libraryapi.load;
+
+import br.com.study.libraryapi.LibraryApiApplication;
+import br.com.study.libraryapi.dto.BookBatchDTO;
+import br.com.study.libraryapi.dto.BookDTO;
+import br.com.study.libraryapi.dto.BookLookupDTO;
+import br.com.study.libraryapi.isbn.Isbns;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the default settings with the prod profile on the paths it tunes: batch imports
+ * (POST /api/books/batch, JDBC batching) and bulk lookups (POST /api/books/lookup, padded IN lists and
+ * statement caching). The books cache is disabled so every lookup reaches the database.
+ *
+ * Run with: ./mvnw test -Dtest=ProdProfileLoadTest -Dloadtest=true
+ * Results are printed and written to target/load-prod-profile.json.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+public class ProdProfileLoadTest {
+
+    private static final int BATCH_SIZE = 200;
+    private static final int LOOKUP_SIZE = 100;
+    private static final int CLIENTS = Integer.getInteger("load.clients", 32);
+    private static final long WARMUP_MILLIS = Long.getLong("load.warmup", 5_000);
+    private static final long DURATION_MILLIS = Long.getLong("load.duration", 20_000);
+
+    @Test
+    @DisplayName("Must compare the default settings with the prod profile under load")
+    public void compareProfiles() throws Exception {
+        List<LoadResult> results = new ArrayList<>();
+        results.addAll(runProfile("default"));
+        results.addAll(runProfile("prod"));
+
+        ObjectMapper json = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        json.writeValue(new File("target/load-prod-profile.json"), results);
+        System.out.println(json.writeValueAsString(results));
+
+        assertThat(results).allMatch(result -> result.getRequests() > 0);
+    }
+
+    private List<LoadResult> runProfile(String profile) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(LibraryApiApplication.class)
+                .profiles(profile)
+                .properties("server.port=0",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "library.cache.books.max-size=0",
+                        "library.rate-limit.enabled=false")      // Every client shares one address here
+                .run()) {
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+            ObjectMapper mapper = new ObjectMapper();
+            AtomicLong isbns = new AtomicLong();
+            LoadGenerator generator = new LoadGenerator(CLIENTS, WARMUP_MILLIS, DURATION_MILLIS);
+
+            List<LoadResult> results = new ArrayList<>();
+            results.add(generator.run(profile + "-batch", (c, i) -> {
+                List<BookDTO> books = new ArrayList<>(BATCH_SIZE);
+                for (int b = 0; b < BATCH_SIZE; b++) {
+                    long n = isbns.incrementAndGet();
+                    books.add(BookDTO.builder().title("Load test book " + n).author("Author " + n).isbn(Long.toString(Isbns.isbn13(n))).build());
+                }
+                return post(client, port, "/api/books/batch", mapper.writeValueAsString(new BookBatchDTO(books)));
+            }));
+
+            long stored = isbns.get();
+            results.add(generator.run(profile + "-lookup", (c, i) -> {
+                long from = 1 + (c * 7919L + i * LOOKUP_SIZE) % Math.max(1, stored - LOOKUP_SIZE);
+                List<Long> ids = LongStream.range(from, from + LOOKUP_SIZE).boxed().collect(Collectors.toList());
+                return post(client, port, "/api/books/lookup", mapper.writeValueAsString(BookLookupDTO.builder().ids(ids).build()));
+            }));
+            return results;
+        }
+    }
+
+    private static int post(HttpClient client, int port, String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,52 @@
+package br.com.study.libraryapi.mapper;
+
+import br.com.study.libraryapi.dto.BookDTO;
+import br.com.study.libraryapi.model.entity.Book;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BookMapperTest {
+
+    BookMapper bookMapper = new BookMapper();
+    ModelMapper modelMapper = new ModelMapper();
+
+    @Test
+    @DisplayName("Must map an entity to the same DTO that ModelMapper produces")
+    public void toDtoMatchesModelMapper(){
+        // Scenario
+        Book book = Book.builder().id(1L).title("The Lord of the Rings").author("J.R.R. Tolkien").isbn("0001").build();
+
+        // Execution
+        BookDTO mapped = bookMapper.toDto(book);
+
+        // Verification
+        assertThat(mapped).isEqualTo(modelMapper.map(book, BookDTO.class));
+    }
+
+    @Test
+    @DisplayName("Must map a DTO to the same entity that ModelMapper produces")
+    public void toEntityMatchesModelMapper(){
+        // Scenario
+        BookDTO dto = BookDTO.builder().title("Crazy Love").author("Francis Chan").isbn("001").build();
+
+        // Execution
+        Book mapped = bookMapper.toEntity(dto);
+
+        // Verification
+        assertThat(mapped).isEqualTo(modelMapper.map(dto, Book.class));
+        assertThat(mapped.getId()).isNull();
+    }
+
+    @Test
+    @DisplayName("Must keep null fields as null, like ModelMapper does")
+    public void partialObjectsMatchModelMapper(){
+        Book book = Book.builder().id(2L).title("Untitled").build();
+        BookDTO dto = BookDTO.builder().isbn("002").build();
+
+        assertThat(bookMapper.toDto(book)).isEqualTo(modelMapper.map(book, BookDTO.class));
+        assertThat(bookMapper.toEntity(dto)).isEqualTo(modelMapper.map(dto, Book.class));
+    }
+}
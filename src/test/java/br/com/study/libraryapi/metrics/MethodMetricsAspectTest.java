@@ -0,0 +1,62 @@
+package br.com.study.libraryapi.metrics;
+
+import br.com.study.libraryapi.exception.BusinessException;
+import br.com.study.libraryapi.model.entity.Book;
+import br.com.study.libraryapi.service.BookService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MethodMetricsAspectTest {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    BookService target = Mockito.mock(BookService.class);
+    BookService bookService;
+
+    @BeforeEach
+    public void setUp(){
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(new MethodMetricsAspect(meterRegistry));
+        bookService = factory.getProxy();
+    }
+
+    @Test
+    @DisplayName("Must time each call of the service")
+    public void timeServiceCallsTest(){
+        // Scenario
+        Mockito.when(target.getById(1L)).thenReturn(Optional.empty());
+
+        // Execution
+        bookService.getById(1L);
+        bookService.getById(1L);
+
+        // Verification
+        assertThat(meterRegistry.get("library.calls")
+                .tag("layer", "service")
+                .tag("method", "getById")
+                .timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Must time calls that fail with a business error, leaving the error count to its handler")
+    public void timeFailedCallsTest(){
+        // Scenario
+        Mockito.when(target.save(Mockito.any(Book.class))).thenThrow(new BusinessException("Isbn already exists!"));
+
+        // Execution
+        Throwable exception = Assertions.catchThrowable(() -> bookService.save(new Book()));
+
+        // Verification
+        assertThat(exception).isInstanceOf(BusinessException.class);
+        assertThat(meterRegistry.find("library.business.errors").counter()).isNull();
+        assertThat(meterRegistry.get("library.calls").tag("method", "save").timer().count()).isEqualTo(1);
+    }
+}
@@ -1,6 +1,8 @@
 package br.com.study.libraryapi.model.repository;
 
+import br.com.study.libraryapi.dto.BookDTO;
 import br.com.study.libraryapi.model.entity.Book;
+import br.com.study.libraryapi.repository.BookFilter;
 import br.com.study.libraryapi.repository.BookRepository;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -8,9 +10,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 
 @ExtendWith(SpringExtension.class)
@@ -50,4 +58,84 @@ public class BookRepositoryTest {
         assertThat(exists).isFalse();
     }
 
+    @Test
+    @DisplayName("Must return the page of books after the given id, ordered by id")
+    public void findPageAfterIdTest(){
+        // Scenario
+        Book first = entityManager.persist(Book.builder().title("The Hobbit").author("J.R.R. Tolkien").isbn("1").build());
+        Book second = entityManager.persist(Book.builder().title("The Silmarillion").author("J.R.R. Tolkien").isbn("2").build());
+        Book third = entityManager.persist(Book.builder().title("Mere Christianity").author("C.S. Lewis").isbn("3").build());
+
+        // Execution
+        List<Book> page = bookRepository.findPage(new BookFilter(), first.getId(), 10);
+
+        // Verification
+        assertThat(page).containsExactly(second, third);
+    }
+
+    @Test
+    @DisplayName("Must filter the page of books by title and author prefix")
+    public void findPageWithFiltersTest(){
+        // Scenario
+        entityManager.persist(Book.builder().title("The Hobbit").author("J.R.R. Tolkien").isbn("1").build());
+        Book silmarillion = entityManager.persist(Book.builder().title("The Silmarillion").author("J.R.R. Tolkien").isbn("2").build());
+        entityManager.persist(Book.builder().title("The Screwtape Letters").author("C.S. Lewis").isbn("3").build());
+
+        // Execution
+        List<Book> page = bookRepository.findPage(BookFilter.builder().title("The S").author("J.R.R").build(), null, 10);
+
+        // Verification
+        assertThat(page).containsExactly(silmarillion);
+    }
+
+    @Test
+    @DisplayName("Must limit the size of the page")
+    public void findPageLimitTest(){
+        // Scenario
+        Book first = entityManager.persist(Book.builder().title("The Hobbit").author("J.R.R. Tolkien").isbn("1").build());
+        entityManager.persist(Book.builder().title("The Silmarillion").author("J.R.R. Tolkien").isbn("2").build());
+
+        // Execution
+        List<Book> page = bookRepository.findPage(new BookFilter(), null, 1);
+
+        // Verification
+        assertThat(page).containsExactly(first);
+    }
+
+
+    @Test
+    @DisplayName("Must reject saving a book changed since it was read")
+    public void rejectStaleUpdateTest(){
+        // Scenario
+        Book book = entityManager.persistFlushFind(Book.builder().title("The Hobbit").author("J.R.R. Tolkien").isbn("1").build());
+        Book stale = Book.builder().id(book.getId()).title("The Hobbit, 2nd edition").author("J.R.R. Tolkien").isbn("1")
+                .version(book.getVersion()).build();
+        book.setTitle("The Hobbit, or There and Back Again");
+        entityManager.flush();
+
+        // Execution
+        Throwable exception = catchThrowable(() -> bookRepository.saveAndFlush(stale));
+
+        // Verification
+        assertThat(book.getVersion()).isEqualTo(1L);
+        assertThat(exception).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+    }
+
+    @Test
+    @DisplayName("Must read books straight into DTOs, without loading the entities")
+    public void findDtoByIdTest(){
+        // Scenario
+        Book book = entityManager.persistFlushFind(Book.builder().title("The Hobbit").author("J.R.R. Tolkien").isbn("1").build());
+        entityManager.clear();
+
+        // Execution
+        Optional<BookDTO> dto = bookRepository.findDtoById(book.getId());
+        List<BookDTO> dtos = bookRepository.findDtosByIsbnIn(Arrays.asList("1", "2"));
+
+        // Verification
+        assertThat(dto).contains(new BookDTO(book.getId(), "The Hobbit", "J.R.R. Tolkien", "1", 0L));
+        assertThat(dtos).containsExactly(dto.get());
+        assertThat(entityManager.getEntityManager().contains(book)).isFalse();
+        assertThat(bookRepository.findDtoById(book.getId() + 1)).isEmpty();
+    }
 }
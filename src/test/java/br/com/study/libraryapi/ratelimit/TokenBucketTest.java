@@ -0,0 +1,67 @@
+package br.com.study.libraryapi.ratelimit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("Must allow the burst at once, then one request per interval")
+    public void burstThenRateTest(){
+        // Scenario: 10 per second, burst of 3
+        TokenBucket bucket = new TokenBucket(SECOND / 10, 3 * SECOND / 10);
+        long now = 1_000 * SECOND;
+
+        // Verification
+        assertThat(bucket.availableTokens(now)).isEqualTo(3);
+        for (int i = 0; i < 3; i++)
+            assertThat(bucket.tryAcquire(now)).isZero();
+        assertThat(bucket.availableTokens(now)).isZero();
+        assertThat(bucket.tryAcquire(now)).isEqualTo(SECOND / 10);        // Wait until the next token
+        assertThat(bucket.tryAcquire(now + SECOND / 10)).isZero();
+        assertThat(bucket.tryAcquire(now + SECOND / 10)).isPositive();
+        assertThat(bucket.availableTokens(now + 10 * SECOND)).isEqualTo(3);     // Refilled, never above the burst
+    }
+
+    @Test
+    @DisplayName("Must never hand out more tokens than the burst under contention")
+    public void concurrentAcquireTest() throws Exception {
+        // Scenario: practically no refill during the test
+        TokenBucket bucket = new TokenBucket(1000 * SECOND, 1000 * 1000 * SECOND);
+        long now = System.nanoTime();
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // Execution
+        for (int t = 0; t < 16; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 1000; i++) {
+                    if (bucket.tryAcquire(now) == 0)
+                        granted.incrementAndGet();
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        // Verification
+        assertThat(granted.get()).isEqualTo(1000);
+    }
+}
@@ -0,0 +1,113 @@
+package br.com.study.libraryapi.search;
+
+import br.com.study.libraryapi.model.entity.Book;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BookSearchIndexTest {
+
+    BookSearchIndex index;
+
+    @BeforeEach
+    public void setUp(){
+        index = new BookSearchIndex(new SimpleMeterRegistry());
+        index.add(book(1L, "The Hobbit", "J.R.R. Tolkien"));
+        index.add(book(2L, "The Lord of the Rings", "J.R.R. Tolkien"));
+        index.add(book(3L, "Tolkien: A Biography", "Humphrey Carpenter"));
+        index.add(book(4L, "Mere Christianity", "C.S. Lewis"));
+        index.add(book(5L, "O Tempo e o Vento", "Érico Veríssimo"));
+    }
+
+    @Test
+    @DisplayName("Must match words in title and author, ranking title matches first")
+    public void searchRankingTest(){
+        // Execution
+        BookSearchHits hits = index.search("Tolkien", 0, 10);
+
+        // Verification
+        assertThat(hits.getTotal()).isEqualTo(3);
+        assertThat(hits.getIds()).containsExactly(3L, 1L, 2L);      // Equal scores keep the older book first
+    }
+
+    @Test
+    @DisplayName("Must only match books containing every word of the query")
+    public void searchAllWordsTest(){
+        assertThat(index.search("tolkien hobbit", 0, 10).getIds()).containsExactly(1L);
+        assertThat(index.search("tolkien narnia", 0, 10).getTotal()).isZero();
+        assertThat(index.search("  ,. ", 0, 10).getIds()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Must ignore case and accents")
+    public void searchFoldingTest(){
+        assertThat(index.search("ERICO verissimo", 0, 10).getIds()).containsExactly(5L);
+        assertThat(index.search("Veríssimo", 0, 10).getIds()).containsExactly(5L);
+    }
+
+    @Test
+    @DisplayName("Must page through the ranked matches")
+    public void searchPaginationTest(){
+        // Execution
+        BookSearchHits firstPage = index.search("tolkien", 0, 2);
+        BookSearchHits secondPage = index.search("tolkien", 2, 2);
+
+        // Verification
+        assertThat(firstPage.getIds()).containsExactly(3L, 1L);
+        assertThat(secondPage.getIds()).containsExactly(2L);
+        assertThat(secondPage.getTotal()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Must stop matching a removed book")
+    public void removeTest(){
+        // Execution
+        index.remove(book(1L, "The Hobbit", "J.R.R. Tolkien"));
+
+        // Verification
+        assertThat(index.search("hobbit", 0, 10).getTotal()).isZero();
+        assertThat(index.search("tolkien", 0, 10).getIds()).containsExactly(3L, 2L);
+        assertThat(index.documents()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Must replace the index contents on rebuild, keeping books added meanwhile")
+    public void rebuildTest(){
+        // Execution
+        List<Book> stored = Arrays.asList(book(10L, "Crazy Love", "Francis Chan"), book(11L, "Forgotten God", "Francis Chan"));
+        index.rebuild(sink -> {
+            stored.forEach(sink);
+            index.add(book(12L, "Letters to the Church", "Francis Chan"));      // A save while rebuilding
+        });
+
+        // Verification
+        assertThat(index.search("tolkien", 0, 10).getTotal()).isZero();
+        assertThat(index.search("francis chan", 0, 10).getIds()).containsExactly(10L, 11L, 12L);
+        assertThat(index.documents()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Must intersect long and short postings lists correctly")
+    public void searchLargeIntersectionTest(){
+        // Scenario
+        for (long id = 100; id < 20_100; id++)
+            index.add(book(id, "Common title " + (id % 1000 == 0 ? "rare" : "plain"), "Someone"));
+
+        // Execution
+        BookSearchHits hits = index.search("common rare", 0, 100);
+
+        // Verification
+        assertThat(hits.getTotal()).isEqualTo(20);
+        assertThat(hits.getIds()).hasSize(20).allMatch(id -> id % 1000 == 0);
+    }
+
+    private static Book book(Long id, String title, String author){
+        return Book.builder().id(id).title(title).author(author).isbn("isbn-" + id).build();
+    }
+}
@@ -0,0 +1,68 @@
+package br.com.study.libraryapi.service;
+
+import br.com.study.libraryapi.exception.BusinessException;
+import br.com.study.libraryapi.model.entity.Book;
+import br.com.study.libraryapi.repository.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class BookServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    BookService bookService;
+    @Autowired
+    BookRepository bookRepository;
+
+    @AfterEach
+    public void tearDown(){
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Must save exactly one book when the same isbn is created concurrently")
+    public void onlyOneConcurrentDuplicateSucceeds() throws Exception {
+        // Scenario
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    bookService.save(Book.builder().isbn("9780306406157").author("Paul Washer").title("Walking with Jesus").build());
+                    return true;
+                } catch (BusinessException e) {
+                    assertThat(e).hasMessage("Isbn already exists!");
+                    return false;
+                }
+            }));
+        }
+
+        // Execution
+        start.countDown();
+        int succeeded = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(30, TimeUnit.SECONDS))
+                succeeded++;
+        }
+        executor.shutdown();
+
+        // Verification
+        assertThat(succeeded).isEqualTo(1);
+        assertThat(bookRepository.count()).isEqualTo(1);
+    }
+}
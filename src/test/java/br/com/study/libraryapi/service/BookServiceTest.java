@@ -1,19 +1,42 @@
 package br.com.study.libraryapi.service;
 
+import br.com.study.libraryapi.cache.BookCache;
+import br.com.study.libraryapi.changes.BookChangeLog;
+import br.com.study.libraryapi.dto.BookChangeDTO;
+import br.com.study.libraryapi.dto.BookDTO;
 import br.com.study.libraryapi.exception.BusinessException;
+import br.com.study.libraryapi.isbn.IsbnIndex;
+import br.com.study.libraryapi.mapper.BookMapper;
+import br.com.study.libraryapi.metrics.BusinessErrorCounter;
 import br.com.study.libraryapi.model.entity.Book;
 import br.com.study.libraryapi.repository.BookRepository;
+import br.com.study.libraryapi.search.BookSearchIndex;
 import org.assertj.core.api.Assertions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.hibernate.exception.ConstraintViolationException;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -22,12 +45,21 @@ import static org.assertj.core.api.Assertions.assertThat;
 public class BookServiceTest {
 
     BookService bookService;
+    BookCache bookCache;
+    IsbnIndex isbnIndex;
+    BookSearchIndex searchIndex;
+    BookChangeLog changeLog = Mockito.mock(BookChangeLog.class);
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
     @MockBean
     BookRepository bookRepository;
 
     @BeforeEach
     public void setUp(){
-        this.bookService = new BookServiceImpl(bookRepository);
+        this.bookCache = new BookCache(100, Duration.ofMinutes(10), Duration.ofSeconds(5), meterRegistry);
+        this.isbnIndex = new IsbnIndex(1000, 0.01, true, meterRegistry);
+        this.searchIndex = new BookSearchIndex(meterRegistry);
+        this.bookService = new BookServiceImpl(bookRepository, bookCache, isbnIndex, searchIndex, changeLog, new BookMapper(),
+                new BusinessErrorCounter(meterRegistry));
     }
 
     @Test
@@ -46,8 +78,7 @@ public class BookServiceTest {
                 .title("Walking with Jesus")
                 .build();
 
-        Mockito.when(bookRepository.save(book)).thenReturn(bookReturned);
-        Mockito.when(bookRepository.existsByIsbn(Mockito.anyString())).thenReturn(false);   // Even though it will return false by default, its a good practice to show it explicit
+        Mockito.when(bookRepository.saveAndFlush(book)).thenReturn(bookReturned);
 
         // Execution
         Book savedBook = bookService.save(book);
@@ -57,6 +88,7 @@ public class BookServiceTest {
         assertThat(savedBook.getIsbn()).isEqualTo("124789");
         assertThat(savedBook.getTitle()).isEqualTo("Walking with Jesus");
         assertThat(savedBook.getAuthor()).isEqualTo("Paul Washer");
+        Mockito.verify(changeLog).record(Collections.singletonList(bookReturned));
     }
 
     @Test
@@ -64,7 +96,7 @@ public class BookServiceTest {
     public void shouldNotSaveBookWithDuplicatedIsbn(){
         // Scenario
         Book book = Book.builder().isbn("124789").author("Paul Washer").title("Walking with Jesus").build();
-        Mockito.when(bookRepository.existsByIsbn(Mockito.anyString())).thenReturn(true);
+        Mockito.when(bookRepository.saveAndFlush(book)).thenThrow(isbnViolation());   // The unique index rejects the insert
 
         // Execution
         Throwable exception = Assertions.catchThrowable(() -> bookService.save(book));
@@ -73,8 +105,322 @@ public class BookServiceTest {
         assertThat(exception)
                 .isInstanceOf(BusinessException.class)
                 .hasMessage("Isbn already exists!");
-        Mockito.verify(bookRepository, Mockito.never()).save(book);     // Verify if the method 'save' wasn't called
+        assertThat(exception.getStackTrace()).isEmpty();     // Expected errors don't pay for a stack trace
+        Mockito.verify(bookRepository, Mockito.never()).existsByIsbn(Mockito.anyString());     // No extra round trip before the insert
+    }
+
+    @Test
+    @DisplayName("Must not hide integrity errors which are not related to the isbn")
+    public void shouldRethrowOtherIntegrityErrors(){
+        // Scenario
+        Book book = Book.builder().isbn("124789").author("Paul Washer").title("Walking with Jesus").build();
+        DataIntegrityViolationException otherViolation = new DataIntegrityViolationException("other",
+                new ConstraintViolationException("other", new SQLException(), "PUBLIC.FK_SOMETHING"));
+        Mockito.when(bookRepository.saveAndFlush(book)).thenThrow(otherViolation);
+
+        // Execution
+        Throwable exception = Assertions.catchThrowable(() -> bookService.save(book));
+
+        // Verification
+        assertThat(exception).isSameAs(otherViolation);
+    }
+
+    @Test
+    @DisplayName("Must not report an integrity error without a constraint name as a duplicated isbn")
+    public void shouldRethrowIntegrityErrorsWithoutConstraintName(){
+        // Scenario
+        Book book = Book.builder().isbn("124789").author("Paul Washer").title("Walking with Jesus").build();
+        DataIntegrityViolationException unnamedViolation = new DataIntegrityViolationException("unnamed",
+                new ConstraintViolationException("unnamed", new SQLException(), null));
+        Mockito.when(bookRepository.saveAndFlush(book)).thenThrow(unnamedViolation);
+
+        // Execution
+        Throwable exception = Assertions.catchThrowable(() -> bookService.save(book));
+
+        // Verification
+        assertThat(exception).isSameAs(unnamedViolation);
+    }
+
+    @Test
+    @DisplayName("Must save a batch of books, reporting the ones with duplicated isbn")
+    public void saveBatchTest(){
+        // Scenario
+        Book newBook = Book.builder().isbn("111").author("Paul Washer").title("Walking with Jesus").build();
+        Book existingBook = Book.builder().isbn("222").author("A.W. Tozer").title("The Pursuit of God").build();
+        Book repeatedBook = Book.builder().isbn("111").author("Paul Washer").title("Walking with Jesus").build();
+        Book savedBook = Book.builder().id(1L).isbn("111").author("Paul Washer").title("Walking with Jesus").build();
+
+        Mockito.when(bookRepository.findExistingIsbns(new HashSet<>(Arrays.asList("111", "222")))).thenReturn(Collections.singletonList("222"));
+        Mockito.when(bookRepository.saveAll(Collections.singletonList(newBook))).thenReturn(Collections.singletonList(savedBook));
+
+        // Execution
+        List<BatchItemResult> results = bookService.saveAll(Arrays.asList(newBook, existingBook, repeatedBook));
+
+        // Verification
+        assertThat(results).hasSize(3);
+        assertThat(results.get(0).isSuccess()).isTrue();
+        assertThat(results.get(0).getBook().getId()).isEqualTo(1L);
+        assertThat(results.get(1).isSuccess()).isFalse();
+        assertThat(results.get(1).getError()).isEqualTo("Isbn already exists!");
+        assertThat(results.get(2).isSuccess()).isFalse();
+        assertThat(meterRegistry.get("library.business.errors")
+                .tag("message", "Isbn already exists!")
+                .counter().count()).isEqualTo(2);       // Failed items count as business errors too
+        Mockito.verify(bookRepository, Mockito.times(1)).findExistingIsbns(Mockito.anyCollection());     // A single query for the whole batch, even for isbns the index doesn't know
+        Mockito.verify(bookRepository, Mockito.never()).existsByIsbn(Mockito.anyString());
+        Mockito.verify(changeLog).record(Collections.singletonList(savedBook));        // Only the stored ones
+    }
+
+    @Test
+    @DisplayName("Must serve repeated lookups of the same book from the cache")
+    public void getByIdUsesCacheTest(){
+        // Scenario
+        BookDTO book = BookDTO.builder().id(1L).isbn("124789").author("Paul Washer").title("Walking with Jesus").build();
+        Mockito.when(bookRepository.findDtoById(1L)).thenReturn(Optional.of(book));
+
+        // Execution
+        bookService.getById(1L);
+        Optional<BookDTO> returnedBook = bookService.getById(1L);
 
+        // Verification
+        assertThat(returnedBook).contains(book);
+        Mockito.verify(bookRepository, Mockito.times(1)).findDtoById(1L);
+        Mockito.verify(bookRepository, Mockito.never()).findById(Mockito.anyLong());       // No managed entity on the read path
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Must cache lookups of missing books too")
+    public void getByIdCachesMissesTest(){
+        // Scenario
+        Mockito.when(bookRepository.findDtoById(Mockito.anyLong())).thenReturn(Optional.empty());
+
+        // Execution
+        bookService.getById(1L);
+        Optional<BookDTO> returnedBook = bookService.getById(1L);
+
+        // Verification
+        assertThat(returnedBook).isEmpty();
+        Mockito.verify(bookRepository, Mockito.times(1)).findDtoById(1L);
+    }
+
+    @Test
+    @DisplayName("Must replace a cached miss with the saved book")
+    public void saveCachesSavedBookTest(){
+        // Scenario
+        Book book = Book.builder().isbn("124789").author("Paul Washer").title("Walking with Jesus").build();
+        Book savedBook = Book.builder().id(1L).isbn("124789").author("Paul Washer").title("Walking with Jesus").version(0L).build();
+        Mockito.when(bookRepository.findDtoById(1L)).thenReturn(Optional.empty());
+        Mockito.when(bookRepository.saveAndFlush(book)).thenReturn(savedBook);
+        bookService.getById(1L);
+
+        // Execution
+        bookService.save(book);
+        Optional<BookDTO> returnedBook = bookService.getById(1L);
+
+        // Verification
+        assertThat(returnedBook).contains(new BookMapper().toDto(savedBook));
+        Mockito.verify(bookRepository, Mockito.times(1)).findDtoById(1L);        // Read straight from the cache, no replica round trip
+    }
+
+    @Test
+    @DisplayName("Must reject a duplicated isbn known by the isbn index without trying to insert it")
+    public void shouldRejectIsbnKnownByIndex(){
+        // Scenario
+        Book book = Book.builder().isbn("978-0-306-40615-7").author("Paul Washer").title("Walking with Jesus").build();
+        isbnIndex.add("9780306406157");
+        Mockito.when(bookRepository.existsByIsbn("9780306406157")).thenReturn(true);       // Checked in its canonical form
+
+        // Execution
+        Throwable exception = Assertions.catchThrowable(() -> bookService.save(book));
+
+        // Verification
+        assertThat(exception).hasMessage("Isbn already exists!");
+        Mockito.verify(bookRepository, Mockito.never()).saveAndFlush(Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Must save a book when the database doesn't confirm the isbn index hit")
+    public void shouldSaveOnIndexFalsePositive(){
+        // Scenario
+        Book book = Book.builder().isbn("978-0-306-40615-7").author("Paul Washer").title("Walking with Jesus").build();
+        Book savedBook = Book.builder().id(1L).isbn("9780306406157").author("Paul Washer").title("Walking with Jesus").build();
+        isbnIndex.add("9780306406157");
+        Mockito.when(bookRepository.existsByIsbn("9780306406157")).thenReturn(false);
+        Mockito.when(bookRepository.saveAndFlush(book)).thenReturn(savedBook);
+
+        // Execution
+        Book returnedBook = bookService.save(book);
+
+        // Verification
+        assertThat(returnedBook).isEqualTo(savedBook);
+        assertThat(meterRegistry.get("library.isbn.index.false.positives").counter().count()).isEqualTo(1);
+    }
 
+    @Test
+    @DisplayName("Must store valid isbns as their compact ISBN-13")
+    public void saveCanonicalizesIsbnTest(){
+        // Scenario
+        Book book = Book.builder().isbn("0-306-40615-2").author("Paul Washer").title("Walking with Jesus").build();
+        Mockito.when(bookRepository.saveAndFlush(book))
+                .thenReturn(Book.builder().id(1L).isbn("9780306406157").author("Paul Washer").title("Walking with Jesus").build());
+
+        // Execution
+        bookService.save(book);
+
+        // Verification
+        Mockito.verify(bookRepository).saveAndFlush(Mockito.argThat(saved -> saved.getIsbn().equals("9780306406157")));
+    }
+
+    @Test
+    @DisplayName("Must reject the forms of the same isbn repeated inside a batch")
+    public void saveAllCanonicalizesIsbnsTest(){
+        // Scenario
+        Book isbn13 = Book.builder().isbn("978-0-306-40615-7").author("Paul Washer").title("Walking with Jesus").build();
+        Book isbn10 = Book.builder().isbn("0306406152").author("Paul Washer").title("Walking with Jesus").build();
+        Book savedBook = Book.builder().id(1L).isbn("9780306406157").author("Paul Washer").title("Walking with Jesus").build();
+        Mockito.when(bookRepository.saveAll(Collections.singletonList(isbn13))).thenReturn(Collections.singletonList(savedBook));
+
+        // Execution
+        List<BatchItemResult> results = bookService.saveAll(Arrays.asList(isbn13, isbn10));
+
+        // Verification
+        assertThat(results.get(0).isSuccess()).isTrue();
+        assertThat(results.get(1).isSuccess()).isFalse();
+        assertThat(results.get(1).getError()).isEqualTo("Isbn already exists!");
+        assertThat(isbn13.getIsbn()).isEqualTo("9780306406157");
+    }
+
+    @Test
+    @DisplayName("Must add the isbn of a saved book to the isbn index")
+    public void saveAddsIsbnToIndexTest(){
+        // Scenario
+        Book book = Book.builder().isbn("124789").author("Paul Washer").title("Walking with Jesus").build();
+        Mockito.when(bookRepository.saveAndFlush(book)).thenReturn(Book.builder().id(1L).isbn("124789").build());
+
+        // Execution
+        bookService.save(book);
+
+        // Verification
+        assertThat(isbnIndex.mightContain("124789")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Must only cache and index a saved book once its transaction commits")
+    public void saveUpdatesCacheAfterCommitTest(){
+        // Scenario
+        Book book = Book.builder().isbn("124789").author("Paul Washer").title("Walking with Jesus").build();
+        Book savedBook = Book.builder().id(1L).isbn("124789").author("Paul Washer").title("Walking with Jesus").build();
+        Mockito.when(bookRepository.saveAndFlush(book)).thenReturn(savedBook);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Execution
+            bookService.save(book);
+
+            // Verification
+            assertThat(isbnIndex.mightContain("124789")).isFalse();
+            assertThat(searchIndex.search("washer", 0, 10).getTotal()).isZero();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertThat(isbnIndex.mightContain("124789")).isTrue();
+            assertThat(searchIndex.search("washer", 0, 10).getTotal()).isEqualTo(1);
+            assertThat(bookService.getById(1L)).isPresent();
+            Mockito.verify(bookRepository, Mockito.never()).findDtoById(1L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Must look up many ids with a single query, in request order, using the cache")
+    public void getByIdsTest(){
+        // Scenario
+        BookDTO cached = BookDTO.builder().id(1L).isbn("001").build();
+        BookDTO loaded = BookDTO.builder().id(2L).isbn("002").build();
+        Mockito.when(bookRepository.findDtoById(1L)).thenReturn(Optional.of(cached));
+        bookService.getById(1L);
+        Mockito.when(bookRepository.findDtosByIdIn(Mockito.anyCollection())).thenReturn(Collections.singletonList(loaded));
+
+        // Execution
+        List<Optional<BookDTO>> books = bookService.getByIds(Arrays.asList(2L, 3L, 1L));
+
+        // Verification
+        assertThat(books).containsExactly(Optional.of(loaded), Optional.empty(), Optional.of(cached));
+        Mockito.verify(bookRepository, Mockito.times(1)).findDtosByIdIn(Mockito.argThat(ids ->
+                new HashSet<>(ids).equals(new HashSet<>(Arrays.asList(2L, 3L)))));
+        assertThat(bookService.getById(3L)).isEmpty();       // The miss got cached as well
+        Mockito.verify(bookRepository, Mockito.never()).findDtoById(3L);
+    }
+
+    @Test
+    @DisplayName("Must split very large id lookups into several queries")
+    public void getByIdsChunksTest(){
+        // Scenario
+        List<Long> ids = LongStream.rangeClosed(1, 1200).boxed().collect(Collectors.toList());
+        Mockito.when(bookRepository.findDtosByIdIn(Mockito.anyCollection())).thenReturn(Collections.emptyList());
+
+        // Execution
+        List<Optional<BookDTO>> books = bookService.getByIds(ids);
+
+        // Verification
+        assertThat(books).hasSize(1200).allMatch(book -> !book.isPresent());
+        Mockito.verify(bookRepository, Mockito.times(3)).findDtosByIdIn(Mockito.anyCollection());
+    }
+
+    @Test
+    @DisplayName("Must look up isbns with a single query in request order, even the ones the isbn index doesn't know")
+    public void getByIsbnsTest(){
+        // Scenario
+        BookDTO book = BookDTO.builder().id(1L).isbn("9780306406157").build();      // Written by another instance
+        Mockito.when(bookRepository.findDtosByIsbnIn(Mockito.anyCollection())).thenReturn(Collections.singletonList(book));
+
+        // Execution
+        List<Optional<BookDTO>> books = bookService.getByIsbns(Arrays.asList("9780804429573", "9780306406157"));
+
+        // Verification
+        assertThat(books).containsExactly(Optional.empty(), Optional.of(book));
+        Mockito.verify(bookRepository).findDtosByIsbnIn(Arrays.asList("9780804429573", "9780306406157"));
+        assertThat(bookService.getById(1L)).contains(book);      // Found books warm the id cache
+        Mockito.verify(bookRepository, Mockito.never()).findDtoById(1L);
+    }
+
+    @Test
+    @DisplayName("Must make saved books searchable and return them in rank order")
+    public void searchTest(){
+        // Scenario
+        Book hobbit = Book.builder().isbn("1").author("J.R.R. Tolkien").title("The Hobbit").build();
+        Book savedHobbit = Book.builder().id(1L).isbn("1").author("J.R.R. Tolkien").title("The Hobbit").build();
+        Book tolkien = Book.builder().id(2L).isbn("2").author("Humphrey Carpenter").title("Tolkien: A Biography").build();
+        BookMapper mapper = new BookMapper();
+        Mockito.when(bookRepository.saveAndFlush(hobbit)).thenReturn(savedHobbit);
+        bookService.save(hobbit);
+        searchIndex.add(tolkien);
+        Mockito.when(bookRepository.findDtosByIdIn(Collections.singletonList(2L))).thenReturn(Collections.singletonList(mapper.toDto(tolkien)));
+
+        // Execution
+        BookSearchResult result = bookService.search("tolkien", 0, 10);
+
+        // Verification
+        assertThat(result.getTotal()).isEqualTo(2);
+        assertThat(result.getBooks()).containsExactly(mapper.toDto(tolkien), mapper.toDto(savedHobbit));     // A title match outranks an author match
+    }
+
+    private static DataIntegrityViolationException isbnViolation(){
+        return new DataIntegrityViolationException("duplicated isbn",
+                new ConstraintViolationException("duplicated isbn", new SQLException(), "PUBLIC.UK_BOOK_ISBN_INDEX_1"));
+    }
+
+    @Test
+    @DisplayName("Must read the change feed from the change log")
+    public void getChangesTest(){
+        // Scenario
+        BookChangeDTO change = BookChangeDTO.builder().cursor(8L).id(1L).title("Walking with Jesus").build();
+        Mockito.when(changeLog.changesAfter(7L, 100)).thenReturn(Collections.singletonList(change));
+
+        // Execution
+        List<BookChangeDTO> changes = bookService.getChanges(7L, 100);
+
+        // Verification
+        assertThat(changes).containsExactly(change);
     }
 }
@@ -0,0 +1,67 @@
+package br.com.study.libraryapi.startup;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletResponse;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StartupReportTest {
+
+    @Test
+    @DisplayName("Must sum the top-level steps and rank the beans by instantiation time")
+    public void timelineTest() throws Exception {
+        // Scenario
+        BufferingApplicationStartup startup = new BufferingApplicationStartup(100);
+        StartupStep refresh = startup.start("spring.context.refresh");
+        StartupStep slow = startup.start(StartupReport.BEAN_INSTANTIATE).tag("beanName", "entityManagerFactory");
+        Thread.sleep(20);
+        slow.end();
+        startup.start(StartupReport.BEAN_INSTANTIATE).tag("beanName", "bookMapper").end();
+        refresh.end();
+
+        // Execution
+        StartupTimeline timeline = startup.getBufferedTimeline();
+        List<StartupTimeline.TimelineEvent> slowest = StartupReport.slowestBeans(timeline, 1);
+
+        // Verification
+        assertThat(StartupReport.phases(timeline)).containsOnlyKeys("spring.context.refresh");
+        assertThat(StartupReport.phases(timeline).get("spring.context.refresh").toMillis()).isGreaterThanOrEqualTo(20);
+        assertThat(slowest).hasSize(1);
+        assertThat(slowest.get(0).getStartupStep().getTags())
+                .anyMatch( tag -> tag.getKey().equals("beanName") && tag.getValue().equals("entityManagerFactory"));
+    }
+
+    @Test
+    @DisplayName("Must report the first successful GET /api/books/{id} only")
+    public void firstReadTest() throws Exception {
+        // Scenario
+        StartupReport report = new StartupReport(10);
+        FirstReadFilter filter = new FirstReadFilter(report);
+
+        // Execution
+        filter.doFilter(get(), new MockHttpServletResponse(), (request, response) -> {
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, FirstReadFilter.BOOK_PATTERN);
+            ((HttpServletResponse) response).setStatus(HttpServletResponse.SC_NOT_FOUND);
+        });
+        boolean seenAfterMiss = report.isFirstReadSeen();
+        filter.doFilter(get(), new MockHttpServletResponse(), (request, response) ->
+                request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, FirstReadFilter.BOOK_PATTERN));
+
+        // Verification
+        assertThat(seenAfterMiss).isFalse();
+        assertThat(report.isFirstReadSeen()).isTrue();
+    }
+
+    private static MockHttpServletRequest get() {
+        return new MockHttpServletRequest("GET", "/api/books/1");
+    }
+}
@@ -0,0 +1,250 @@
+package br.com.study.libraryapi.web;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class CompressionFilterTest {
+
+    private static final String LARGE_JSON = json(500);
+
+    private final CompressionFilter filter = new CompressionFilter(6, 1024,
+            MediaType.parseMediaTypes("application/json,application/x-ndjson,text/csv"));
+
+    @Test
+    @DisplayName("Must gzip large JSON responses")
+    public void gzipTest() throws Exception {
+        // Execution
+        MockHttpServletResponse response = filter(requestTo("gzip, deflate"), writing(MediaType.APPLICATION_JSON_VALUE, LARGE_JSON));
+
+        // Verification
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_LENGTH)).isNull();
+        assertThat(response.getContentAsByteArray().length).isLessThan(LARGE_JSON.length() / 2);
+        assertThat(gunzip(response.getContentAsByteArray())).isEqualTo(LARGE_JSON);
+    }
+
+    @Test
+    @DisplayName("Must use deflate when the client doesn't accept gzip")
+    public void deflateTest() throws Exception {
+        // Execution
+        MockHttpServletResponse response = filter(requestTo("gzip;q=0, deflate"), writing(MediaType.APPLICATION_JSON_VALUE, LARGE_JSON));
+
+        // Verification
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("deflate");
+        assertThat(inflate(response.getContentAsByteArray())).isEqualTo(LARGE_JSON);
+    }
+
+    @Test
+    @DisplayName("Must pick the encoding from Accept-Encoding")
+    public void negotiateTest() {
+        assertThat(CompressionFilter.negotiate(null)).isNull();
+        assertThat(CompressionFilter.negotiate("identity")).isNull();
+        assertThat(CompressionFilter.negotiate("deflate, gzip")).isEqualTo(CompressionFilter.Encoding.GZIP);
+        assertThat(CompressionFilter.negotiate("deflate;q=0.5")).isEqualTo(CompressionFilter.Encoding.DEFLATE);
+        assertThat(CompressionFilter.negotiate("*")).isEqualTo(CompressionFilter.Encoding.GZIP);
+        assertThat(CompressionFilter.negotiate("gzip;q=0, *")).isEqualTo(CompressionFilter.Encoding.DEFLATE);
+        assertThat(CompressionFilter.negotiate("gzip;q=0, deflate;q=0")).isNull();
+    }
+
+    @Test
+    @DisplayName("Must send small responses as they are, with their length")
+    public void belowThresholdTest() throws Exception {
+        // Execution
+        MockHttpServletResponse response = filter(requestTo("gzip"), writing(MediaType.APPLICATION_JSON_VALUE, "{\"id\":1}"));
+
+        // Verification
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getContentLength()).isEqualTo(8);
+        assertThat(response.getContentAsString()).isEqualTo("{\"id\":1}");
+    }
+
+    @Test
+    @DisplayName("Must leave content types out of the allow-list and clients without Accept-Encoding alone")
+    public void notCompressedTest() throws Exception {
+        // Execution
+        MockHttpServletResponse plainText = filter(requestTo("gzip"), writing(MediaType.TEXT_PLAIN_VALUE, LARGE_JSON));
+        MockHttpServletResponse noEncoding = filter(requestTo(null), writing(MediaType.APPLICATION_JSON_VALUE, LARGE_JSON));
+
+        // Verification
+        assertThat(plainText.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(plainText.getContentAsString()).isEqualTo(LARGE_JSON);
+        assertThat(noEncoding.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(noEncoding.getContentAsString()).isEqualTo(LARGE_JSON);
+    }
+
+    @Test
+    @DisplayName("Must weaken the ETag of a compressed response")
+    public void weakETagTest() throws Exception {
+        // Execution
+        MockHttpServletResponse response = filter(requestTo("gzip"), (req, res) -> {
+            ((HttpServletResponse) res).setHeader(HttpHeaders.ETAG, "\"1-3\"");
+            writing(MediaType.APPLICATION_JSON_VALUE, LARGE_JSON).doFilter(req, res);
+        });
+
+        // Verification
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("W/\"1-3\"");
+    }
+
+    @Test
+    @DisplayName("Must stream compressed output instead of holding the whole body")
+    public void streamingTest() throws Exception {
+        // Scenario
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicInteger sentWhileWriting = new AtomicInteger();
+        byte[] line = "{\"id\":1,\"title\":\"The Hobbit\",\"author\":\"J.R.R. Tolkien\"}\n".getBytes(StandardCharsets.UTF_8);
+
+        // Execution
+        filter.doFilter(requestTo("gzip"), response, (req, res) -> {
+            res.setContentType("application/x-ndjson");
+            for (int i = 0; i < 50_000; i++) {
+                res.getOutputStream().write(line);
+                if (i % 1000 == 0)
+                    res.getOutputStream().flush();
+            }
+            sentWhileWriting.set(response.getContentAsByteArray().length);
+        });
+
+        // Verification
+        assertThat(sentWhileWriting.get()).isPositive();
+        assertThat(gunzip(response.getContentAsByteArray()).length()).isEqualTo(line.length * 50_000);
+    }
+
+    @Test
+    @DisplayName("Must finish the compressed body of an async streaming response")
+    public void asyncStreamingTest() throws Exception {
+        // Scenario
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new ExportController()).addFilters(filter).build();
+
+        // Execution
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/export").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult();
+        MvcResult dispatched = mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn();
+
+        // Verification
+        assertThat(gunzip(dispatched.getResponse().getContentAsByteArray())).isEqualTo(LARGE_JSON);
+    }
+
+    @Test
+    @DisplayName("Must send event stream events uncompressed as soon as they are flushed")
+    public void eventStreamTest() throws Exception {
+        // Scenario
+        CompressionFilter everything = new CompressionFilter(6, 1024, MediaType.parseMediaTypes("*/*"));
+        EventController controller = new EventController();
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(controller).addFilters(everything).build();
+
+        // Execution
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/events").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        controller.emitter.send(SseEmitter.event().id("1").name("book").data("{\"id\":1}"));
+
+        // Verification: the event is out while the stream is still open, far below the minimum size
+        assertThat(result.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(result.getResponse().getContentAsString()).contains("id:1\nevent:book\ndata:{\"id\":1}\n\n");
+        controller.emitter.complete();
+    }
+
+    @RestController
+    static class EventController {
+        final SseEmitter emitter = new SseEmitter(60_000L);
+
+        @GetMapping("/events")
+        public SseEmitter events() {
+            return emitter;
+        }
+    }
+
+    @RestController
+    static class ExportController {
+        @GetMapping("/export")
+        public ResponseEntity<StreamingResponseBody> export() {
+            StreamingResponseBody body = out -> out.write(LARGE_JSON.getBytes(StandardCharsets.UTF_8));
+            return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+        }
+    }
+
+    private MockHttpServletResponse filter(MockHttpServletRequest request, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static MockHttpServletRequest requestTo(String acceptEncoding) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books");
+        if (acceptEncoding != null)
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        return request;
+    }
+
+    private static FilterChain writing(String contentType, String body) {
+        return (request, response) -> {
+            response.setContentType(contentType);
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            response.setContentLength(bytes.length);
+            response.getOutputStream().write(bytes);
+            response.getOutputStream().flush();
+        };
+    }
+
+    private static String json(int books) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < books; i++)
+            json.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append(",\"title\":\"Title ").append(i)
+                    .append("\",\"author\":\"J.R.R. Tolkien\",\"isbn\":\"978000000").append(1000 + i).append("\"}");
+        return json.append(']').toString();
+    }
+
+    private static String gunzip(byte[] bytes) throws Exception {
+        return read(new GZIPInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    private static String inflate(byte[] bytes) throws Exception {
+        return read(new InflaterInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    private static String read(InputStream in) throws Exception {
+        try (InputStream input = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) > 0)
+                out.write(buffer, 0, read);
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
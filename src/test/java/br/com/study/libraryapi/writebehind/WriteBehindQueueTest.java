@@ -0,0 +1,213 @@
+package br.com.study.libraryapi.writebehind;
+
+import br.com.study.libraryapi.exception.BusinessException;
+import br.com.study.libraryapi.model.entity.Book;
+import br.com.study.libraryapi.service.BatchItemResult;
+import br.com.study.libraryapi.service.BookService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class WriteBehindQueueTest {
+
+    private final BookService bookService = Mockito.mock(BookService.class);
+    private final AtomicLong ids = new AtomicLong();
+    private final List<Integer> batchSizes = new ArrayList<>();
+    private WriteBehindQueue queue;
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        if (queue != null)
+            queue.shutdown();
+    }
+
+    @Test
+    @DisplayName("Must store creates that arrive together in one batch")
+    public void groupCommitTest() throws Exception {
+        // Scenario
+        storeAll();
+        queue = queue(100, 10, Duration.ofMillis(200));
+
+        // Execution
+        List<String> trackingIds = new ArrayList<>();
+        for (int i = 0; i < 10; i++)
+            trackingIds.add(queue.submit(book("00" + i)));
+
+        // Verification
+        for (String trackingId : trackingIds)
+            assertThat(awaitDone(trackingId).getState()).isEqualTo(CreateStatus.State.CREATED);
+        assertThat(batchSizes).containsExactly(10);
+        assertThat(queue.status(trackingIds.get(0)).get().getBook().getId()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Must publish the error of the books a batch couldn't store")
+    public void failedItemTest() throws Exception {
+        // Scenario
+        Mockito.when(bookService.saveAll(Mockito.anyList())).thenAnswer( invocation -> {
+            List<Book> books = invocation.getArgument(0);
+            List<BatchItemResult> results = new ArrayList<>();
+            for (Book book : books)
+                results.add(book.getIsbn().equals("dup")
+                        ? BatchItemResult.failed(book, "Isbn already exists!")
+                        : BatchItemResult.saved(withId(book)));
+            return results;
+        });
+        queue = queue(100, 10, Duration.ZERO);
+
+        // Execution
+        String stored = queue.submit(book("001"));
+        String duplicated = queue.submit(book("dup"));
+
+        // Verification
+        assertThat(awaitDone(stored).getState()).isEqualTo(CreateStatus.State.CREATED);
+        CreateStatus failed = awaitDone(duplicated);
+        assertThat(failed.getState()).isEqualTo(CreateStatus.State.FAILED);
+        assertThat(failed.getError()).isEqualTo("Isbn already exists!");
+    }
+
+    @Test
+    @DisplayName("Must retry book by book when the batch was rolled back")
+    public void rolledBackBatchTest() throws Exception {
+        // Scenario: an isbn was taken between the check and the commit
+        Mockito.when(bookService.saveAll(Mockito.anyList())).thenThrow(new BusinessException("Isbn already exists!"));
+        Mockito.when(bookService.save(Mockito.any(Book.class))).thenAnswer( invocation -> {
+            Book book = invocation.getArgument(0);
+            if (book.getIsbn().equals("dup"))
+                throw new BusinessException("Isbn already exists!");
+            return withId(book);
+        });
+        queue = queue(100, 10, Duration.ZERO);
+
+        // Execution
+        String stored = queue.submit(book("001"));
+        String duplicated = queue.submit(book("dup"));
+
+        // Verification
+        assertThat(awaitDone(stored).getState()).isEqualTo(CreateStatus.State.CREATED);
+        assertThat(awaitDone(duplicated).getState()).isEqualTo(CreateStatus.State.FAILED);
+    }
+
+    @Test
+    @DisplayName("Must reject creates while the queue is full")
+    public void fullQueueTest() throws Exception {
+        // Scenario: the writer is stuck on the first batch
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(bookService.saveAll(Mockito.anyList())).thenAnswer( invocation -> {
+            release.await();
+            List<Book> books = invocation.getArgument(0);
+            List<BatchItemResult> results = new ArrayList<>();
+            for (Book book : books)
+                results.add(BatchItemResult.saved(withId(book)));
+            return results;
+        });
+        queue = queue(2, 1, Duration.ZERO);
+        queue.submit(book("001"));
+        while (queue.getQueueSize() > 0)        // Taken by the writer
+            Thread.sleep(1);
+
+        // Execution
+        queue.submit(book("002"));
+        queue.submit(book("003"));
+
+        // Verification
+        assertThatThrownBy( () -> queue.submit(book("004"))).isInstanceOf(RejectedExecutionException.class);
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("Must store every accepted create before shutting down")
+    public void drainOnShutdownTest() throws Exception {
+        // Scenario
+        storeAll();
+        queue = queue(1000, 50, Duration.ofSeconds(1));
+        List<String> trackingIds = new ArrayList<>();
+        for (int i = 0; i < 120; i++)
+            trackingIds.add(queue.submit(book(Integer.toString(i))));
+
+        // Execution
+        queue.shutdown();
+
+        // Verification
+        for (String trackingId : trackingIds)
+            assertThat(queue.status(trackingId).get().getState()).isEqualTo(CreateStatus.State.CREATED);
+        assertThatThrownBy( () -> queue.submit(book("late"))).isInstanceOf(RejectedExecutionException.class);
+        queue = null;
+    }
+
+    @Test
+    @DisplayName("Must mark the creates the writer didn't get to before the shutdown timeout as failed")
+    public void shutdownTimeoutTest() throws Exception {
+        // Scenario: the writer is stuck on the first batch
+        Mockito.when(bookService.saveAll(Mockito.anyList())).thenAnswer( invocation -> {
+            new CountDownLatch(1).await();
+            return null;
+        });
+        queue = new WriteBehindQueue(bookService, 10, 1, Duration.ZERO,
+                Duration.ofMinutes(1), 1000, Duration.ofMillis(100), new SimpleMeterRegistry());
+        queue.submit(book("001"));
+        while (queue.getQueueSize() > 0)        // Taken by the writer
+            Thread.sleep(1);
+        String queued = queue.submit(book("002"));
+
+        // Execution
+        queue.shutdown();
+
+        // Verification
+        CreateStatus status = queue.status(queued).get();
+        assertThat(status.getState()).isEqualTo(CreateStatus.State.FAILED);
+        assertThat(status.getError()).isEqualTo(WriteBehindQueue.STORE_FAILED);
+        assertThat(queue.getQueueSize()).isZero();
+        queue = null;
+    }
+
+    private WriteBehindQueue queue(int capacity, int batchSize, Duration maxDelay) {
+        return new WriteBehindQueue(bookService, capacity, batchSize, maxDelay,
+                Duration.ofMinutes(1), 1000, Duration.ofSeconds(10), new SimpleMeterRegistry());
+    }
+
+    private void storeAll() {
+        Mockito.when(bookService.saveAll(Mockito.anyList())).thenAnswer( invocation -> {
+            List<Book> books = invocation.getArgument(0);
+            synchronized (batchSizes) {
+                batchSizes.add(books.size());
+            }
+            List<BatchItemResult> results = new ArrayList<>();
+            for (Book book : books)
+                results.add(BatchItemResult.saved(withId(book)));
+            return results;
+        });
+    }
+
+    private CreateStatus awaitDone(String trackingId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        CreateStatus status = queue.status(trackingId).get();
+        while (status.getState() == CreateStatus.State.PENDING && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            status = queue.status(trackingId).get();
+        }
+        return status;
+    }
+
+    private Book withId(Book book) {
+        book.setId(ids.incrementAndGet());
+        return book;
+    }
+
+    private static Book book(String isbn) {
+        return Book.builder().title("Crazy Love").author("Francis Chan").isbn(isbn).build();
+    }
+}